@@ -15,6 +15,10 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Abstract base class for all barrier implementations of this package. Barriers extending this
  * class can have an associated (global) action, specified as a {@link Runnable}, which will be
@@ -26,10 +30,24 @@ package peschlowp.jbarrier.barrier;
  * the barrier action, which in turn happen-before actions following a successful return from
  * {@link #await(int)} in other threads.
  * <p>
- * At this point, there is not much of an error handling if, e.g., threads get interrupted during
- * the barrier. A well-defined error handling, such as the
- * {@link java.util.concurrent.BrokenBarrierException} used by the
- * {@link java.util.concurrent.CyclicBarrier}, may be added in future versions.
+ * A barrier may become <i>broken</i>, either because a party calling one of the timed
+ * <code>await</code> methods times out or is interrupted, because the barrier action throws an
+ * exception, or because {@link #breakBarrier()} is called explicitly (e.g., by a party that fails
+ * outside of the barrier). All busy-wait loops check the broken state, so that waiting parties
+ * leave the barrier instead of spinning forever. The untimed {@link #await(int)} method then throws
+ * a {@link BarrierBrokenException}, whereas the timed
+ * {@link #await(int, long, java.util.concurrent.TimeUnit)} method throws an
+ * {@link java.util.concurrent.InterruptedException}, a
+ * {@link java.util.concurrent.TimeoutException}, or a
+ * {@link java.util.concurrent.BrokenBarrierException}, just like the
+ * {@link java.util.concurrent.CyclicBarrier}. Note that the internal state of a broken barrier is
+ * undefined, so a broken barrier cannot be reset but has to be replaced by a new one.
+ * <p>
+ * For parallel search, any party may raise a "eureka" by calling {@link #eureka(int, long)}, e.g.,
+ * when it has found a solution. The current or next <code>await</code> call of every party then
+ * returns immediately, and {@link #isEureka()} indicates that the computation is to be terminated.
+ * The eureka check is folded into the broken-state check of the busy-wait loops, so it does not
+ * cost anything extra. Like a broken barrier, a barrier cannot be used any more after a eureka.
  * 
  * @version 1.0
  * 
@@ -37,6 +55,31 @@ package peschlowp.jbarrier.barrier;
  * @author Ivan Castilla Rodriguez
  */
 public abstract class AbstractBarrier implements Barrier {
+    /**
+     * Deadline value passed to the busy-wait loops if there is no timeout.
+     */
+    protected static final long NO_DEADLINE = 0L;
+
+    /**
+     * State of a barrier in normal operation.
+     */
+    protected static final int RUNNING = 0;
+
+    /**
+     * State of a broken barrier.
+     */
+    protected static final int BROKEN = 1;
+
+    /**
+     * State of a barrier after a eureka has been raised.
+     */
+    protected static final int EUREKA = 2;
+
+    /**
+     * The pre-allocated eureka signal.
+     */
+    protected static final EurekaSignal EUREKA_SIGNAL = new EurekaSignal();
+
     /**
      * The number of parties taking part in the barrier.
      */
@@ -53,6 +96,38 @@ public abstract class AbstractBarrier implements Barrier {
      */
     protected final GenericReductor genericReductor;
 
+    /**
+     * The generic reduction operator if it supports batches of reductions, otherwise
+     * <code>null</code>.
+     */
+    protected final BatchGenericReductor batchReductor;
+
+    /**
+     * The state of the barrier ({@link #RUNNING}, {@link #BROKEN}, or {@link #EUREKA}).
+     */
+    protected volatile int state;
+
+    /**
+     * The payload of the eureka, if any.
+     */
+    private long eurekaPayload;
+
+    /**
+     * The ID of the party that raised the eureka, or -1 if there was no eureka.
+     */
+    private int eurekaParty = -1;
+
+    /**
+     * Describes why the barrier was broken.
+     */
+    private volatile String brokenMessage;
+
+    /**
+     * An optional watchdog that detects dead or stuck parties, or <code>null</code> if there is no
+     * watchdog.
+     */
+    protected BarrierWatchdog watchdog;
+
     /**
      * Creates a new <code>AbstractBarrier</code> that will trip when the given number of parties
      * are waiting upon it.
@@ -74,6 +149,8 @@ public abstract class AbstractBarrier implements Barrier {
 	this.numParties = numParties;
 	this.action = action;
 	this.genericReductor = genericReductor;
+	batchReductor = genericReductor instanceof BatchGenericReductor
+		? (BatchGenericReductor) genericReductor : null;
     }
 
     /**
@@ -81,7 +158,335 @@ public abstract class AbstractBarrier implements Barrier {
      * 
      * @param threadId
      *            the ID of the party
+     * @throws BarrierBrokenException
+     *             if the barrier is or becomes broken while waiting
      */
     @Override
     public abstract void await(int threadId);
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public abstract void await(int threadId, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException;
+
+    /**
+     * Checks whether the barrier is broken.
+     * 
+     * @return <code>true</code> if the barrier is broken, otherwise <code>false</code>
+     */
+    @Override
+    public boolean isBroken() {
+	return state == BROKEN;
+    }
+
+    /**
+     * Raises a eureka without payload.
+     * 
+     * @param threadId
+     *            the ID of the party raising the eureka
+     */
+    public void eureka(int threadId) {
+	eureka(threadId, 0L);
+    }
+
+    /**
+     * Raises a eureka, so that the current or next <code>await</code> call of every party returns
+     * immediately. Only the first eureka takes effect, and a broken barrier stays broken.
+     * 
+     * @param threadId
+     *            the ID of the party raising the eureka
+     * @param payload
+     *            the payload of the eureka, e.g., an index identifying the solution found
+     */
+    @Override
+    public synchronized void eureka(int threadId, long payload) {
+	if (state == RUNNING) {
+	    eurekaPayload = payload;
+	    eurekaParty = threadId;
+	    state = EUREKA;
+	}
+    }
+
+    /**
+     * Checks whether a eureka has been raised.
+     * 
+     * @return <code>true</code> if a eureka has been raised, otherwise <code>false</code>
+     */
+    @Override
+    public boolean isEureka() {
+	return state == EUREKA;
+    }
+
+    /**
+     * Provides the payload of the eureka. Only meaningful if {@link #isEureka()} returns
+     * <code>true</code>.
+     * 
+     * @return the payload of the eureka
+     */
+    @Override
+    public long getEurekaPayload() {
+	return state == EUREKA ? eurekaPayload : 0L;
+    }
+
+    /**
+     * Provides the ID of the party that raised the eureka.
+     * 
+     * @return the ID of the party that raised the eureka, or -1 if there was no eureka
+     */
+    public int getEurekaParty() {
+	return state == EUREKA ? eurekaParty : -1;
+    }
+
+    /**
+     * Breaks the barrier, so that all parties currently waiting or arriving later leave the
+     * barrier with an exception. May be called by a party that fails outside of the barrier and
+     * therefore will never arrive.
+     */
+    public void breakBarrier() {
+	breakBarrier("Barrier has been broken explicitly");
+    }
+
+    /**
+     * Breaks the barrier, keeping the first message describing why the barrier was broken.
+     * 
+     * @param message
+     *            describes why the barrier is broken
+     */
+    protected synchronized void breakBarrier(String message) {
+	if (state == RUNNING) {
+	    brokenMessage = message;
+	    state = BROKEN;
+	}
+    }
+
+    /**
+     * Attaches a watchdog to this barrier. Has to be called before the parties start using the
+     * barrier.
+     * 
+     * @param watchdog
+     *            the watchdog
+     * @throws IllegalStateException
+     *             if a watchdog has already been attached
+     */
+    void setWatchdog(BarrierWatchdog watchdog) {
+	if (this.watchdog != null) {
+	    throw new IllegalStateException("Barrier already has a watchdog!");
+	}
+	this.watchdog = watchdog;
+    }
+
+    /**
+     * Provides the number of parties taking part in the barrier.
+     * 
+     * @return the number of parties taking part in the barrier
+     */
+    public int getNumParties() {
+	return numParties;
+    }
+
+    /**
+     * Called when a party enters the barrier. Notifies the watchdog, if any, and checks the broken
+     * state. A deadline is not checked here but only while waiting, so that a party whose
+     * arrival trips the barrier succeeds even if its timeout is not positive (like with the
+     * {@link java.util.concurrent.CyclicBarrier}).
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @throws BarrierBrokenException
+     *             if the barrier is broken
+     * @throws EurekaSignal
+     *             if a eureka has been raised
+     */
+    protected final void enter(int threadId) {
+	if (watchdog != null) {
+	    watchdog.arrive(threadId);
+	}
+	if (state != RUNNING) {
+	    checkState();
+	}
+    }
+
+    /**
+     * Called from within the busy-wait loops. In the common case, this is a single read of a
+     * volatile variable. Only if the barrier is broken, a eureka has been raised, or a deadline is
+     * given, the slow path is taken.
+     * 
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+     * @throws BarrierBrokenException
+     *             if the barrier is broken, the calling party was interrupted, or the deadline
+     *             has passed
+     * @throws EurekaSignal
+     *             if a eureka has been raised
+     */
+    protected final void checkWait(long deadline) {
+	if (state != RUNNING) {
+	    checkState();
+	}
+	if (deadline != NO_DEADLINE) {
+	    checkDeadline(deadline);
+	}
+    }
+
+    /**
+     * Slow path of {@link #checkWait(long)}, called if the barrier is broken or a eureka has been
+     * raised.
+     * 
+     * @throws BarrierBrokenException
+     *             if the barrier is broken
+     * @throws EurekaSignal
+     *             if a eureka has been raised
+     */
+    private void checkState() {
+	if (state == EUREKA) {
+	    throw EUREKA_SIGNAL;
+	}
+	throw new BarrierBrokenException(BarrierBrokenException.Reason.BROKEN, brokenMessage);
+    }
+
+    /**
+     * Slow path of {@link #checkWait(long)}, checks for interrupts and timeouts.
+     * 
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}
+     * @throws BarrierBrokenException
+     *             if the calling party was interrupted or the deadline has passed
+     */
+    private void checkDeadline(long deadline) {
+	if (Thread.interrupted()) {
+	    breakBarrier("A party was interrupted while waiting for the barrier");
+	    throw new BarrierBrokenException(BarrierBrokenException.Reason.INTERRUPTED,
+		    "Interrupted while waiting for the barrier");
+	}
+	if (System.nanoTime() - deadline >= 0L) {
+	    breakBarrier("A party timed out while waiting for the barrier");
+	    throw new BarrierBrokenException(BarrierBrokenException.Reason.TIMEOUT,
+		    "Timeout while waiting for the barrier");
+	}
+    }
+
+    /**
+     * Computes the deadline for one of the timed <code>await</code> methods.
+     * 
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the deadline in terms of {@link System#nanoTime()} (never equal to
+     *         {@link #NO_DEADLINE})
+     * @throws InterruptedException
+     *             if the calling party has already been interrupted
+     */
+    protected final long deadline(long timeout, TimeUnit unit) throws InterruptedException {
+	if (Thread.interrupted()) {
+	    breakBarrier("A party was interrupted before entering the barrier");
+	    throw new InterruptedException();
+	}
+	final long deadline = System.nanoTime() + unit.toNanos(timeout);
+	return deadline == NO_DEADLINE ? deadline + 1 : deadline;
+    }
+
+    /**
+     * Translates a {@link BarrierBrokenException} caught in one of the timed <code>await</code>
+     * methods into the corresponding checked exception.
+     * 
+     * @param e
+     *            the exception to translate
+     * @return the exception to throw if the barrier is broken
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    protected static BrokenBarrierException translate(BarrierBrokenException e)
+	    throws InterruptedException, TimeoutException {
+	switch (e.getReason()) {
+	case INTERRUPTED:
+	    throw new InterruptedException(e.getMessage());
+	case TIMEOUT:
+	    throw new TimeoutException(e.getMessage());
+	default:
+	    BrokenBarrierException bbe = new BrokenBarrierException(e.getMessage());
+	    bbe.initCause(e);
+	    return bbe;
+	}
+    }
+
+    /**
+     * Breaks the barrier because a party failed while being in the barrier, e.g., because a
+     * reduction operator or a generic reductor threw an exception. Called by the public
+     * <code>await</code> methods before the exception is propagated, as the other parties would
+     * otherwise wait forever for the failed party. Has no effect if the barrier is already broken.
+     * 
+     * @param e
+     *            the exception thrown
+     * @return the exception, to be rethrown by the caller
+     */
+    protected final RuntimeException failed(RuntimeException e) {
+	breakBarrier("A party failed in the barrier: " + e);
+	return e;
+    }
+
+    /**
+     * Executes the barrier action, breaking the barrier if the action throws an exception.
+     */
+    protected final void runAction() {
+	try {
+	    action.run();
+	} catch (RuntimeException e) {
+	    breakBarrier("Barrier action threw " + e);
+	    throw e;
+	} catch (Error e) {
+	    breakBarrier("Barrier action threw " + e);
+	    throw e;
+	}
+    }
+
+    /**
+     * Signal used to unwind the busy-wait loops of a party after a eureka has been raised. Caught
+     * by the public <code>await</code> methods, which then return immediately. There is only a
+     * single, pre-allocated instance without stack trace.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    protected static final class EurekaSignal extends RuntimeException {
+	/**
+	 * Serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor.
+	 */
+	private EurekaSignal() {
+	    super("Eureka");
+	}
+
+	/**
+	 * Does not fill in the stack trace, which is never needed.
+	 * 
+	 * @return this signal
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+	    return this;
+	}
+    }
 }
@@ -15,6 +15,10 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Interface for all barrier implementations of this package. A barrier is a well-known
  * synchronization construct for two or more parties (here: threads). No party may pass the barrier
@@ -33,6 +37,10 @@ package peschlowp.jbarrier.barrier;
  * when calling {@link #await(int)}. There are ways to implement the same behavior without having to
  * specify a logical ID, but we think our current implementation doesn't cause any inconvenience to
  * the user.
+ * <p>
+ * In addition, there is a timed variant {@link #await(int, long, TimeUnit)} which may be
+ * interrupted and reports errors with the same checked exceptions as the
+ * {@link java.util.concurrent.CyclicBarrier}.
  * 
  * @version 1.0
  * 
@@ -48,4 +56,58 @@ public interface Barrier {
      *            be one of 0..<i>n</i>-1)
      */
     public void await(int threadId);
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout. If the
+     * timeout elapses or the party is interrupted, the barrier is broken.
+     * 
+     * @param threadId
+     *            the ID of the party (if <i>n</i> threads take part in the barrier, threadId must
+     *            be one of 0..<i>n</i>-1)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException;
+
+    /**
+     * Checks whether the barrier is broken.
+     * 
+     * @return <code>true</code> if the barrier is broken, otherwise <code>false</code>
+     */
+    public boolean isBroken();
+
+    /**
+     * Raises a eureka, so that the current or next <code>await</code> call of every party returns
+     * immediately. Only the first eureka takes effect.
+     * 
+     * @param threadId
+     *            the ID of the party raising the eureka
+     * @param payload
+     *            the payload of the eureka, e.g., an index identifying the solution found
+     */
+    public void eureka(int threadId, long payload);
+
+    /**
+     * Checks whether a eureka has been raised.
+     * 
+     * @return <code>true</code> if a eureka has been raised, otherwise <code>false</code>
+     */
+    public boolean isEureka();
+
+    /**
+     * Provides the payload of the eureka. Only meaningful if {@link #isEureka()} returns
+     * <code>true</code>.
+     * 
+     * @return the payload of the eureka
+     */
+    public long getEurekaPayload();
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+/**
+ * Unchecked exception thrown by the untimed <code>await</code> methods when a party waits for a
+ * barrier that is (or becomes) broken. The timed <code>await</code> methods translate this
+ * exception into the checked exceptions known from the {@link java.util.concurrent.CyclicBarrier}.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class BarrierBrokenException extends RuntimeException {
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Possible reasons for a party to leave a barrier with a <code>BarrierBrokenException</code>.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    public static enum Reason {
+	/**
+	 * The barrier was broken by another party, by an exception thrown in the barrier action, or
+	 * explicitly by a call to {@link AbstractBarrier#breakBarrier()}.
+	 */
+	BROKEN,
+	/**
+	 * The timeout of the calling party elapsed.
+	 */
+	TIMEOUT,
+	/**
+	 * The calling party was interrupted while waiting.
+	 */
+	INTERRUPTED;
+    }
+
+    /**
+     * The reason why the party left the barrier.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructor.
+     * 
+     * @param reason
+     *            the reason why the party left the barrier
+     * @param message
+     *            the detail message
+     */
+    public BarrierBrokenException(Reason reason, String message) {
+	super(message);
+	this.reason = reason;
+    }
+
+    /**
+     * Provides the reason why the party left the barrier.
+     * 
+     * @return the reason why the party left the barrier
+     */
+    public Reason getReason() {
+	return reason;
+    }
+}
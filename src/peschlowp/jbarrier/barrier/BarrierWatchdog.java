@@ -0,0 +1,289 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional watchdog that detects parties which will never arrive at a barrier. On its first call
+ * to <code>await</code>, each party is associated with its {@link Thread}. A daemon thread then
+ * periodically checks whether some parties are waiting for a party whose thread has terminated
+ * (e.g., because of an uncaught exception) or, if a stuck timeout is configured, for a party that
+ * has not arrived for longer than that timeout. In both cases the barrier is broken, so that the
+ * waiting parties stop spinning and leave the barrier with an exception, and the IDs of the
+ * missing parties are reported.
+ * <p>
+ * Terminated threads are only detected for parties whose thread is known and which have arrived
+ * less often than some other party. Without a stuck timeout, a party whose thread terminates
+ * before its first call to <code>await</code> is therefore only detected if its thread has been
+ * registered up front via {@link #register(int, Thread)}, and a party whose thread terminates
+ * within <code>await</code> after its arrival has been counted (e.g., in the barrier action) is
+ * not detected at all. A non-zero stuck timeout is required to detect these cases in general.
+ * <p>
+ * A watchdog has to be created and started before the parties start using the barrier. Usage
+ * example:
+ * 
+ * <pre>
+ * TournamentBarrier barrier = new TournamentBarrier(numThreads);
+ * BarrierWatchdog watchdog = new BarrierWatchdog(barrier, 1, TimeUnit.SECONDS);
+ * watchdog.start();
+ * // Create the threads, register them via watchdog.register(i, thread), start them, and
+ * // wait for them to complete.
+ * watchdog.stop();
+ * </pre>
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class BarrierWatchdog {
+    /**
+     * Distance between the arrival counters of two parties (in longs), so that the counters of
+     * different parties reside in different cache lines.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * Default interval between two checks of the watchdog, in nanoseconds.
+     */
+    private static final long DEFAULT_POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The barrier being watched.
+     */
+    private final AbstractBarrier barrier;
+
+    /**
+     * The number of parties taking part in the barrier.
+     */
+    private final int numParties;
+
+    /**
+     * The threads associated to the parties, registered up front or on their first arrival.
+     */
+    private final AtomicReferenceArray<Thread> threads;
+
+    /**
+     * The number of arrivals of each party (padded, see {@link #PADDING}).
+     */
+    private final AtomicLongArray arrivals;
+
+    /**
+     * Time after which a party that others are waiting for is considered stuck, in nanoseconds,
+     * or 0 if only terminated threads are detected.
+     */
+    private final long stuckTimeout;
+
+    /**
+     * Interval between two checks of the watchdog, in nanoseconds.
+     */
+    private final long pollInterval;
+
+    /**
+     * The IDs of the parties detected to be missing, or <code>null</code> if none were detected.
+     */
+    private volatile int[] missingParties;
+
+    /**
+     * The watchdog thread, or <code>null</code> if the watchdog is not running.
+     */
+    private volatile Thread watchdogThread;
+
+    /**
+     * Constructor.
+     * 
+     * @param barrier
+     *            the barrier to watch
+     * @param stuckTimeout
+     *            the time after which a party that others are waiting for is considered stuck, or
+     *            0 if only terminated threads are to be detected
+     * @param unit
+     *            the time unit of the <code>stuckTimeout</code> parameter
+     * @param pollInterval
+     *            the interval between two checks of the watchdog
+     * @param pollUnit
+     *            the time unit of the <code>pollInterval</code> parameter
+     * @throws IllegalStateException
+     *             if the barrier already has a watchdog
+     */
+    public BarrierWatchdog(AbstractBarrier barrier, long stuckTimeout, TimeUnit unit,
+	    long pollInterval, TimeUnit pollUnit) {
+	if (stuckTimeout < 0 || pollInterval <= 0) {
+	    throw new IllegalArgumentException("Invalid timeout or poll interval!");
+	}
+	this.barrier = barrier;
+	this.numParties = barrier.getNumParties();
+	this.stuckTimeout = unit.toNanos(stuckTimeout);
+	this.pollInterval = pollUnit.toNanos(pollInterval);
+	threads = new AtomicReferenceArray<Thread>(numParties);
+	arrivals = new AtomicLongArray(numParties * PADDING);
+	barrier.setWatchdog(this);
+    }
+
+    /**
+     * Constructor (checks every millisecond).
+     * 
+     * @param barrier
+     *            the barrier to watch
+     * @param stuckTimeout
+     *            the time after which a party that others are waiting for is considered stuck, or
+     *            0 if only terminated threads are to be detected
+     * @param unit
+     *            the time unit of the <code>stuckTimeout</code> parameter
+     * @throws IllegalStateException
+     *             if the barrier already has a watchdog
+     */
+    public BarrierWatchdog(AbstractBarrier barrier, long stuckTimeout, TimeUnit unit) {
+	this(barrier, stuckTimeout, unit, DEFAULT_POLL_INTERVAL, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructor (only detects terminated threads, checks every millisecond). See the class
+     * documentation for the cases that require a stuck timeout.
+     * 
+     * @param barrier
+     *            the barrier to watch
+     * @throws IllegalStateException
+     *             if the barrier already has a watchdog
+     */
+    public BarrierWatchdog(AbstractBarrier barrier) {
+	this(barrier, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts the watchdog thread.
+     */
+    public synchronized void start() {
+	if (watchdogThread != null) {
+	    return;
+	}
+	Thread thread = new Thread("BarrierWatchdog") {
+	    @Override
+	    public void run() {
+		watch();
+	    }
+	};
+	thread.setDaemon(true);
+	watchdogThread = thread;
+	thread.start();
+    }
+
+    /**
+     * Stops the watchdog thread. Should be called when the parties have finished using the
+     * barrier.
+     */
+    public synchronized void stop() {
+	Thread thread = watchdogThread;
+	if (thread != null) {
+	    watchdogThread = null;
+	    LockSupport.unpark(thread);
+	}
+    }
+
+    /**
+     * Provides the IDs of the parties detected to be missing.
+     * 
+     * @return the IDs of the missing parties, or <code>null</code> if the watchdog has not
+     *         detected any missing party
+     */
+    public int[] getMissingParties() {
+	final int[] missing = missingParties;
+	return missing == null ? null : missing.clone();
+    }
+
+    /**
+     * Associates a party with its thread before its first arrival, so that the party is detected
+     * to be missing if the thread terminates before ever reaching the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param thread
+     *            the thread of the party
+     */
+    public void register(int threadId, Thread thread) {
+	threads.set(threadId, thread);
+    }
+
+    /**
+     * Called by the barrier whenever a party arrives.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    void arrive(int threadId) {
+	if (threads.get(threadId) == null) {
+	    threads.set(threadId, Thread.currentThread());
+	}
+	final int index = threadId * PADDING;
+	arrivals.lazySet(index, arrivals.get(index) + 1);
+    }
+
+    /**
+     * Main loop of the watchdog thread.
+     */
+    private void watch() {
+	final Thread self = Thread.currentThread();
+	final long[] lastArrivals = new long[numParties];
+	final long[] lastChange = new long[numParties];
+	final boolean[] missing = new boolean[numParties];
+	final long start = System.nanoTime();
+	Arrays.fill(lastChange, start);
+	while (watchdogThread == self && !barrier.isBroken()) {
+	    LockSupport.parkNanos(this, pollInterval);
+	    final long now = System.nanoTime();
+	    long maxArrivals = 0;
+	    for (int i = 0; i < numParties; i++) {
+		final long count = arrivals.get(i * PADDING);
+		if (count != lastArrivals[i]) {
+		    lastArrivals[i] = count;
+		    lastChange[i] = now;
+		}
+		if (count > maxArrivals) {
+		    maxArrivals = count;
+		}
+	    }
+	    // Only parties that others are waiting for may be missing.
+	    int numMissing = 0;
+	    for (int i = 0; i < numParties; i++) {
+		missing[i] = false;
+		if (lastArrivals[i] < maxArrivals) {
+		    final Thread thread = threads.get(i);
+		    if ((thread != null && !thread.isAlive())
+			    || (stuckTimeout > 0 && now - lastChange[i] >= stuckTimeout)) {
+			missing[i] = true;
+			numMissing++;
+		    }
+		}
+	    }
+	    if (numMissing > 0) {
+		final int[] ids = new int[numMissing];
+		for (int i = 0, j = 0; i < numParties; i++) {
+		    if (missing[i]) {
+			ids[j++] = i;
+		    }
+		}
+		missingParties = ids;
+		barrier.breakBarrier("Watchdog detected terminated or stuck parties: "
+			+ Arrays.toString(ids));
+		return;
+	    }
+	}
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+/**
+ * Extension of the {@link GenericReductor} interface for reductors that combine several threads
+ * into one at once. Barriers call {@link #reduce(int, int[], int)} instead of a sequence of calls
+ * of {@link #reduce(int, int)} whenever the partners of several binary reductions of the same
+ * thread are ready at the same time, e.g., the last thread to arrive at a {@link CentralBarrier}
+ * or a parent whose children in a {@link StaticTreeBarrier} have all arrived. This saves an
+ * interface call per pair and allows for a tight loop over the sources. Barriers where each
+ * thread has a single partner at a time (e.g., the {@link ButterflyBarrier}) only call
+ * {@link #reduce(int, int)}.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public interface BatchGenericReductor extends GenericReductor {
+    /**
+     * Performs the binary reductions of a thread with several other threads participating in the
+     * barrier, which has to be equivalent to calling {@link #reduce(int, int)} for each source in
+     * the given order. As for binary reductions, only the target thread receives the result.
+     * 
+     * @param target
+     *            the ID of the thread receiving the result of the reductions
+     * @param sources
+     *            the IDs of the other threads involved in the reductions, must not be modified
+     * @param count
+     *            the number of valid entries in <code>sources</code>, starting at index 0
+     */
+    void reduce(int target, int[] sources, int count);
+}
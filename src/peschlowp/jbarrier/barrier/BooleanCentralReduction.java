@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Implementation of a central barrier algorithm including a boolean reduction (vote), e.g., to
+ * check whether any party has changed something in an iteration of a solver. Each party sets the
+ * bit of its ID in a shared bit set (64 parties per word) before arriving at the counter, and the
+ * last party to arrive counts the votes. The bit sets of two consecutive barrier episodes are kept
+ * separately, so that the votes may be inspected via {@link #hasVoted(int)} until the party
+ * reaches the barrier again (including from within the barrier action).
+ * <p>
+ * After a eureka (see {@link AbstractBarrier}), the <code>await</code> methods only consider the
+ * vote of the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class BooleanCentralReduction extends CentralBarrier {
+    /**
+     * The bit sets of the votes. Key: buffer index (0 or 1), alternating between barrier episodes.
+     */
+    private final AtomicLongArray[] votes;
+
+    /**
+     * The number of votes. Key: buffer index (0 or 1).
+     */
+    private final int[] numVotes;
+
+    /**
+     * The buffer index of the last completed barrier episode.
+     */
+    private int current;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     */
+    public BooleanCentralReduction(int numParties, Runnable barrierAction) {
+	super(numParties, barrierAction);
+	final int numWords = (numParties + 63) >>> 6;
+	votes = new AtomicLongArray[] { new AtomicLongArray(numWords),
+		new AtomicLongArray(numWords) };
+	numVotes = new int[2];
+	current = 0;
+    }
+
+    /**
+     * Constructor (if no action is used).
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     */
+    public BooleanCentralReduction(int numParties) {
+	this(numParties, null);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, voting <code>false</code>.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	await(threadId, false);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, voting <code>false</code> and waiting at most
+     * for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	await(threadId, false, timeout, unit);
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param vote
+     *            the vote of the party
+     * @return the number of parties that voted <code>true</code>
+     */
+    public int await(int threadId, boolean vote) {
+	try {
+	    return awaitVote(threadId, vote, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return vote ? 1 : 0;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param vote
+     *            the vote of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the number of parties that voted <code>true</code>
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public int await(int threadId, boolean vote, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return awaitVote(threadId, vote, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return vote ? 1 : 0;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, checking whether any party voted
+     * <code>true</code>.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param vote
+     *            the vote of the party
+     * @return <code>true</code> if at least one party voted <code>true</code>, otherwise
+     *         <code>false</code>
+     */
+    public boolean awaitAny(int threadId, boolean vote) {
+	try {
+	    return awaitVote(threadId, vote, NO_DEADLINE) > 0;
+	} catch (EurekaSignal e) {
+	    return vote;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, checking whether all parties voted
+     * <code>true</code>.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param vote
+     *            the vote of the party
+     * @return <code>true</code> if all parties voted <code>true</code>, otherwise
+     *         <code>false</code>
+     */
+    public boolean awaitAll(int threadId, boolean vote) {
+	try {
+	    return awaitVote(threadId, vote, NO_DEADLINE) == numParties;
+	} catch (EurekaSignal e) {
+	    return vote;
+	}
+    }
+
+    /**
+     * Checks the vote of a party in the last completed barrier episode. May be called by any
+     * party until it reaches the barrier again, or by the barrier action.
+     * 
+     * @param partyId
+     *            the ID of the party whose vote is checked
+     * @return <code>true</code> if the party voted <code>true</code>, otherwise
+     *         <code>false</code>
+     */
+    public boolean hasVoted(int partyId) {
+	return (votes[current].get(partyId >>> 6) & (1L << partyId)) != 0L;
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param id
+     *            the ID of the party
+     * @param vote
+     *            the vote of the party
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+     * @return the number of parties that voted <code>true</code>
+     */
+    private int awaitVote(int id, boolean vote, long deadline) {
+	enter(id);
+	boolean localGo = go;
+	final int buffer = localGo ? 1 : 0;
+	final AtomicLongArray words = votes[buffer];
+	if (vote) {
+	    final int word = id >>> 6;
+	    final long bit = 1L << id;
+	    long oldWord;
+	    do {
+		oldWord = words.get(word);
+	    } while (!words.compareAndSet(word, oldWord, oldWord | bit));
+	}
+	if (counter.incrementAndGet() == numParties) {
+	    counter.set(0);
+	    int count = 0;
+	    for (int i = 0; i < words.length(); i++) {
+		count += Long.bitCount(words.get(i));
+	    }
+	    numVotes[buffer] = count;
+	    current = buffer;
+	    // All parties have left the previous episode, so its bit set may be reused.
+	    final AtomicLongArray previous = votes[1 - buffer];
+	    for (int i = 0; i < previous.length(); i++) {
+		previous.set(i, 0L);
+	    }
+	    // If there is a barrier action, execute it.
+	    if (action != null) {
+		runAction();
+	    }
+	    go = !go;
+	} else {
+	    while (go == localGo) {
+		// Busy-wait.
+		checkWait(deadline);
+	    }
+	}
+	return numVotes[buffer];
+    }
+}
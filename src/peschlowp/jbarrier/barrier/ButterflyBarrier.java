@@ -15,6 +15,9 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import peschlowp.jbarrier.util.Utils;
@@ -127,7 +130,43 @@ public class ButterflyBarrier extends AbstractBarrier {
      */
     @Override
     public void await(int threadId) {
-	parties[threadId].await();
+	try {
+	    parties[threadId].await(NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -208,12 +247,17 @@ public class ButterflyBarrier extends AbstractBarrier {
 
 	/**
 	 * Called when this party reaches the barrier.
+	 * 
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 */
-	protected void await() {
+	protected void await(long deadline) {
+	    enter(id);
 	    for (int round = 0; round < numRounds; round++) {
 		partners[round].flagsIn[parity][round].set(sense);
 		while (flagsIn[parity][round].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		if (genericReductor != null) {
 		    genericReductor.reduce(id, partners[round].id);
@@ -227,11 +271,12 @@ public class ButterflyBarrier extends AbstractBarrier {
 	    if (action != null) {
 		outSense = !outSense;
 		if (id == 0) {
-		    action.run();
+		    runAction();
 		    flagOut = outSense;
 		} else {
 		    while (flagOut != outSense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		}
 	    }
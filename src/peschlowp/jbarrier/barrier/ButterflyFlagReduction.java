@@ -0,0 +1,325 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a butterfly barrier algorithm including a reduction of 32-bit values
+ * (<code>int</code> or <code>float</code>), where the value is carried by the synchronization
+ * flag itself. In {@link FloatButterflyReduction}, a party first reads the flag set by its
+ * partner and then the value stored by the partner, which usually costs two cache misses per
+ * round. Here, the partner writes a single 64-bit word that contains the number of the barrier
+ * episode (epoch) in its upper 32 bits and the value in its lower 32 bits, so that a single read
+ * both synchronizes with the partner and delivers the operand. Values of type <code>byte</code>,
+ * <code>short</code>, and <code>char</code> may be reduced as <code>int</code> values.
+ * <p>
+ * Two sets of words are used for alternating barrier episodes, like the flags of the
+ * {@link ButterflyBarrier}. The epoch distinguishes the value of the current episode from the one
+ * written two episodes before.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class ButterflyFlagReduction extends ButterflyBarrier {
+    /**
+     * The reduction operator used.
+     */
+    private final ReductionOperator reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private ButterflyFlagReductionParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ButterflyFlagReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ButterflyFlagReduction(int numParties, ReductionOperator reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduction subclass.
+     */
+    @Override
+    protected void setUpParties() {
+	parties = new ButterflyFlagReductionParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new ButterflyFlagReductionParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    public int await(int threadId, int value) {
+	try {
+	    return parties[threadId].await(value, false, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public int await(int threadId, int value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, false, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    public float await(int threadId, float value) {
+	try {
+	    return Float.intBitsToFloat(parties[threadId].await(Float.floatToRawIntBits(value),
+		    true, NO_DEADLINE));
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return Float.intBitsToFloat(parties[threadId].await(Float.floatToRawIntBits(value),
+		    true, deadline(timeout, unit)));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Applies the reduction operator to two values given as bits.
+     * 
+     * @param bits1
+     *            the bits of the first operand
+     * @param bits2
+     *            the bits of the second operand
+     * @param isFloat
+     *            <code>true</code> if the bits represent <code>float</code> values, or
+     *            <code>false</code> if they represent <code>int</code> values
+     * @return the bits of the result of the operator applied to the two operands
+     */
+    private int operator(int bits1, int bits2, boolean isFloat) {
+	if (isFloat) {
+	    return Float.floatToRawIntBits(reductor.operator(Float.intBitsToFloat(bits1),
+		    Float.intBitsToFloat(bits2)));
+	}
+	return reductor.operator(bits1, bits2);
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class ButterflyFlagReductionParty extends ButterflyBarrierParty {
+	/**
+	 * Pre-computed array of references to the partners of this party in each round.
+	 */
+	private ButterflyFlagReductionParty[] partners;
+
+	/**
+	 * Incoming words carrying the epoch and the value of the partner for each round. Key:
+	 * parity (0 or 1). Index: round number.
+	 */
+	private final AtomicLongArray[] words;
+
+	/**
+	 * The number of the current barrier episode of this party.
+	 */
+	private int epoch;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private ButterflyFlagReductionParty(int id) {
+	    super(id);
+	    words = new AtomicLongArray[] { new AtomicLongArray(numRounds),
+		    new AtomicLongArray(numRounds) };
+	    epoch = 0;
+	}
+
+	/**
+	 * Sets up the partners array for this reduction subclass.
+	 */
+	@Override
+	protected void setUpPartyData() {
+	    partners = new ButterflyFlagReductionParty[numRounds];
+	}
+
+	/**
+	 * Fills the partners array with the partner of this party in each round, i.e., the party
+	 * whose ID differs from the ID of this party in the bit of the round number.
+	 */
+	@Override
+	protected void setupBarrier() {
+	    for (int round = 0; round < numRounds; round++) {
+		final int partner = (id ^ Utils.powerOfTwo(round)) % numParties;
+		partners[round] = parties[partner];
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inBits
+	 *            the bits of the value contributed to the reduction by this thread
+	 * @param isFloat
+	 *            <code>true</code> if the bits represent a <code>float</code> value, or
+	 *            <code>false</code> if they represent an <code>int</code> value
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the bits of the result of the reduction
+	 */
+	private int await(int inBits, boolean isFloat, long deadline) {
+	    enter(id);
+	    epoch++;
+	    final long tag = (long) epoch << 32;
+	    int bits = inBits;
+	    for (int round = 0; round < numRounds; round++) {
+		partners[round].words[parity].set(round, tag | (bits & 0xFFFFFFFFL));
+		long word;
+		while ((int) ((word = words[parity].get(round)) >>> 32) != epoch) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		bits = operator(bits, (int) word, isFloat);
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	    return bits;
+	}
+    }
+}
@@ -15,11 +15,26 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import peschlowp.jbarrier.util.Utils;
 
 /**
  * Implementation of a central barrier algorithm based on a shared counter. Of all algorithms in
  * this package, this one is most similar to the {@link java.util.concurrent.CyclicBarrier}.
+ * <p>
+ * By default, the last party to arrive performs all calls of an optional {@link GenericReductor}
+ * (<code>reduce(0, i)</code> for each other party <code>i</code>), which takes time linear in the
+ * number of parties. Alternatively, the generic reduction may be performed along a binomial tree
+ * over the party IDs, so that the calls are spread across the parties and the reduction takes
+ * logarithmic time. In each round <code>r</code>, a party <code>i</code> that is a multiple of
+ * <code>2^(r+1)</code> calls <code>reduce(i, i + 2^r)</code> as soon as party
+ * <code>i + 2^r</code> has completed its subtree, and party 0 finally releases all parties. In
+ * this case, calls of the generic reductor for different pairs of parties may run concurrently.
  * 
  * @version 1.0
  * 
@@ -27,6 +42,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @author Ivan Castilla Rodriguez
  */
 public class CentralBarrier extends AbstractBarrier {
+    /**
+     * Distance between the flags of two parties (in longs), so that the flags of different parties
+     * reside in different cache lines.
+     */
+    private static final int PADDING = 16;
+
     /**
      * The central counter variable.
      */
@@ -37,6 +58,20 @@ public class CentralBarrier extends AbstractBarrier {
      */
     protected volatile boolean go;
 
+    /**
+     * Flags indicating that a party has completed the generic reduction of its subtree (padded,
+     * see {@link #PADDING}), or <code>null</code> if the generic reduction is not performed along
+     * a tree.
+     */
+    private final AtomicLongArray subtreeFlags;
+
+    /**
+     * The sources passed to a {@link BatchGenericReductor}, or <code>null</code> if the generic
+     * reductor does not support batches. Key: party ID (only 0 unless the generic reduction is
+     * performed along a tree).
+     */
+    private final int[][] batchSources;
+
     /**
      * Constructor.
      * 
@@ -47,11 +82,44 @@ public class CentralBarrier extends AbstractBarrier {
      *            is no action
      * @param genericReductor
      *            an optional generic reductor
+     * @param treeReduction
+     *            <code>true</code> if the generic reduction is to be performed along a binomial
+     *            tree by all parties, or <code>false</code> if it is to be performed by the last
+     *            party to arrive
      */
-    public CentralBarrier(int numParties, Runnable barrierAction, GenericReductor genericReductor) {
+    public CentralBarrier(int numParties, Runnable barrierAction, GenericReductor genericReductor,
+	    boolean treeReduction) {
 	super(numParties, barrierAction, genericReductor);
 	counter = new AtomicInteger(0);
 	go = false;
+	subtreeFlags = treeReduction && genericReductor != null ? new AtomicLongArray(numParties
+		* PADDING) : null;
+	if (batchReductor == null) {
+	    batchSources = null;
+	} else if (subtreeFlags == null) {
+	    // The last party to arrive reduces all other parties into party 0.
+	    batchSources = new int[1][numParties - 1];
+	    for (int i = 1; i < numParties; i++) {
+		batchSources[0][i - 1] = i;
+	    }
+	} else {
+	    batchSources = new int[numParties][32 - Integer.numberOfLeadingZeros(numParties - 1)];
+	}
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param genericReductor
+     *            an optional generic reductor, called by the last party to arrive
+     */
+    public CentralBarrier(int numParties, Runnable barrierAction, GenericReductor genericReductor) {
+	this(numParties, barrierAction, genericReductor, false);
     }
 
     /**
@@ -85,22 +153,135 @@ public class CentralBarrier extends AbstractBarrier {
      */
     @Override
     public void await(int threadId) {
+	try {
+	    awaitBarrier(threadId, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    awaitBarrier(threadId, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param id
+     *            the ID of the party
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+     */
+    private void awaitBarrier(int id, long deadline) {
+	enter(id);
 	boolean localGo = go;
+	if (subtreeFlags != null) {
+	    awaitTree(id, localGo, deadline);
+	    return;
+	}
 	if (counter.incrementAndGet() == numParties) {
 	    counter.set(0);
-	    if (genericReductor != null) {
+	    if (batchReductor != null) {
+		batchReductor.reduce(0, batchSources[0], numParties - 1);
+	    } else if (genericReductor != null) {
 		for (int i = 1; i < numParties; i++) {
 		    genericReductor.reduce(0, i);
 		}
 	    }
 	    if (action != null) {
-		action.run();
+		runAction();
 	    }
 	    go = !go;
 	} else {
 	    while (go == localGo) {
 		// Busy-wait.
+		checkWait(deadline);
+	    }
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier if the generic reduction is performed along a
+     * binomial tree. The arrival counter is not used, as party 0 can only complete its subtree
+     * after all parties have arrived.
+     * 
+     * @param id
+     *            the ID of the party
+     * @param localGo
+     *            the value of the out flag when the party arrived
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+     */
+    private void awaitTree(int id, boolean localGo, long deadline) {
+	// The flags alternate between 0 and 1, like the out flag.
+	final long done = localGo ? 0L : 1L;
+	for (int round = 0; Utils.powerOfTwo(round) < numParties; round++) {
+	    final int distance = Utils.powerOfTwo(round);
+	    if ((id & distance) != 0) {
+		// Subtree completed, hand over to the parent.
+		subtreeFlags.set(id * PADDING, done);
+		while (go == localGo) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		return;
 	    }
+	    final int child = id + distance;
+	    if (child < numParties) {
+		while (subtreeFlags.get(child * PADDING) != done) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		if (batchReductor != null) {
+		    // Also reduce the children of the next rounds that are ready already.
+		    final int[] sources = batchSources[id];
+		    int count = 0;
+		    sources[count++] = child;
+		    int next = Utils.powerOfTwo(round + 1);
+		    while ((id & next) == 0 && id + next < numParties
+			    && subtreeFlags.get((id + next) * PADDING) == done) {
+			sources[count++] = id + next;
+			round++;
+			next <<= 1;
+		    }
+		    batchReductor.reduce(id, sources, count);
+		} else {
+		    genericReductor.reduce(id, child);
+		}
+	    }
+	}
+	// Only party 0 gets here.
+	if (action != null) {
+	    runAction();
 	}
+	go = !go;
     }
 }
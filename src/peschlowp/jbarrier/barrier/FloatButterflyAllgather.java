@@ -0,0 +1,311 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a butterfly barrier algorithm including a float allgather. Each party
+ * contributes a value (or a block of values of fixed length) and every party receives the
+ * contributions of all parties, ordered by party ID, in a caller-provided array. In round
+ * <i>r</i>, the partners exchange the blocks of the 2<sup><i>r</i></sup> parties gathered so far
+ * (recursive doubling), so the allgather completes in log(numParties) rounds. Intermediate
+ * results are kept in two sets of internal buffers for alternating barrier episodes, which are
+ * only reallocated when the block length increases. After a eureka (see {@link AbstractBarrier}),
+ * the <code>await</code> methods only store the contribution of the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatButterflyAllgather extends ButterflyBarrier {
+    /**
+     * The barrier data associated to each party.
+     */
+    private ButterflyAllgatherParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatButterflyAllgather(int numParties, Runnable barrierAction) {
+	super(numParties, barrierAction);
+    }
+
+    /**
+     * Constructor (if no action is used).
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatButterflyAllgather(int numParties) {
+	this(numParties, null);
+    }
+
+    /**
+     * Sets up the parties array required for this allgather subclass.
+     */
+    @Override
+    protected void setUpParties() {
+	parties = new ButterflyAllgatherParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new ButterflyAllgatherParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value contributed by the party
+     * @param out
+     *            the array to store the contributions in, indexed by party ID (of at least
+     *            <code>numParties</code> elements)
+     */
+    public void await(int threadId, float value, float[] out) {
+	try {
+	    parties[threadId].await(null, value, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    out[threadId] = value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value contributed by the party
+     * @param out
+     *            the array to store the contributions in, indexed by party ID (of at least
+     *            <code>numParties</code> elements)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void await(int threadId, float value, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(null, value, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    out[threadId] = value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, contributing a block of values. All parties have
+     * to contribute blocks of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the block of values contributed by the party
+     * @param out
+     *            the array to store the contributions in, the block of party <i>i</i> starting at
+     *            index <i>i</i>*<code>in.length</code> (of at least
+     *            <code>numParties</code>*<code>in.length</code> elements)
+     */
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, (float) 0, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, threadId * in.length, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, contributing a block of values and waiting at
+     * most for the given timeout. All parties have to contribute blocks of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the block of values contributed by the party
+     * @param out
+     *            the array to store the contributions in, the block of party <i>i</i> starting at
+     *            index <i>i</i>*<code>in.length</code> (of at least
+     *            <code>numParties</code>*<code>in.length</code> elements)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, (float) 0, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, threadId * in.length, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class ButterflyAllgatherParty extends ButterflyBarrierParty {
+	/**
+	 * Pre-computed array of references to the partners of this party in each round.
+	 */
+	private ButterflyAllgatherParty[] partners;
+
+	/**
+	 * The contributions gathered so far, grown on demand. First key: parity (0 or 1). Second
+	 * key: index of the value.
+	 */
+	private final float[][] gathered;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private ButterflyAllgatherParty(int id) {
+	    super(id);
+	    gathered = new float[2][0];
+	}
+
+	/**
+	 * Sets up the partners array for this allgather subclass.
+	 */
+	@Override
+	protected void setUpPartyData() {
+	    partners = new ButterflyAllgatherParty[numRounds];
+	}
+
+	/**
+	 * Sets up the partners array for this allgather subclass.
+	 */
+	@Override
+	protected void setupBarrier() {
+	    for (int round = 0; round < numRounds; round++) {
+		final int partner = (id ^ Utils.powerOfTwo(round)) % numParties;
+		partners[round] = parties[partner];
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param in
+	 *            the block of values contributed by this thread, or <code>null</code> if a
+	 *            single value is contributed
+	 * @param inValue
+	 *            the value contributed by this thread (only used if <code>in</code> is
+	 *            <code>null</code>)
+	 * @param out
+	 *            the array to store the contributions in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float inValue, float[] out, long deadline) {
+	    enter(id);
+	    final int blockLength = in == null ? 1 : in.length;
+	    if (gathered[parity].length < numParties * blockLength) {
+		gathered[parity] = new float[numParties * blockLength];
+	    }
+	    final float[] current = gathered[parity];
+	    if (in == null) {
+		current[id] = inValue;
+	    } else {
+		System.arraycopy(in, 0, current, id * blockLength, blockLength);
+	    }
+	    for (int round = 0; round < numRounds; round++) {
+		partners[round].flagsIn[parity][round].set(sense);
+		while (flagsIn[parity][round].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		// Both partners hold the blocks of 2^round parties, starting at the lowest ID.
+		final int length = Utils.powerOfTwo(round) * blockLength;
+		final int ownStart = (id >> round << round) * blockLength;
+		final int partnerStart = (partners[round].id >> round << round) * blockLength;
+		// The last round writes directly into the output array.
+		final float[] target = round + 1 < numRounds ? current : out;
+		System.arraycopy(partners[round].gathered[parity], partnerStart, target,
+			partnerStart, length);
+		if (target == out) {
+		    System.arraycopy(current, ownStart, out, ownStart, length);
+		}
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a butterfly barrier algorithm including a float reduce-scatter. Each party
+ * contributes an array of the same length <i>L</i>, which is reduced element by element, but
+ * every party only receives the segment of the result it owns instead of the whole result. The
+ * segment of party <i>i</i> covers the indices from <i>i</i>*<i>L</i>/numParties (inclusive) to
+ * (<i>i</i>+1)*<i>L</i>/numParties (exclusive), rounded down, so the segment lengths differ by at
+ * most one if <i>L</i> is not a multiple of the number of parties (see
+ * {@link #getSegmentOffset(int, int)} and {@link #getSegmentLength(int, int)}).
+ * <p>
+ * The reduction uses recursive halving: in the first round, the partners exchange half of the
+ * array, each one reducing the half that contains its own segment, and in each further round the
+ * range is halved again. Thus, a party reads about <i>L</i>*(numParties-1)/numParties remote
+ * elements in total, instead of <i>L</i>*log(numParties) for a full array reduction. Intermediate
+ * results are kept in two internal buffers for alternating barrier episodes, which are only
+ * reallocated when the array length increases. After a eureka (see {@link AbstractBarrier}), the
+ * <code>await</code> methods store the segment of the values contributed by the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatButterflyReduceScatter extends ButterflyBarrier {
+    /**
+     * The reduction operator used.
+     */
+    private final ReductionOperator reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private ButterflyReduceScatterParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatButterflyReduceScatter(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatButterflyReduceScatter(int numParties, ReductionOperator reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduce-scatter subclass.
+     */
+    @Override
+    protected void setUpParties() {
+	parties = new ButterflyReduceScatterParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new ButterflyReduceScatterParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Returns the index of the first element of the segment owned by a party.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param length
+     *            the length of the arrays contributed by the parties
+     * @return the index of the first element of the segment of the party
+     */
+    public int getSegmentOffset(int threadId, int length) {
+	return (int) ((long) threadId * length / numParties);
+    }
+
+    /**
+     * Returns the length of the segment owned by a party.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param length
+     *            the length of the arrays contributed by the parties
+     * @return the number of elements of the segment of the party
+     */
+    public int getSegmentLength(int threadId, int length) {
+	return getSegmentOffset(threadId + 1, length) - getSegmentOffset(threadId, length);
+    }
+
+    /**
+     * Called by a party that reaches the barrier. All parties have to contribute arrays of the
+     * same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the segment of the result owned by the party in, starting at
+     *            index 0 (of at least {@link #getSegmentLength(int, int)} elements)
+     */
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, getSegmentOffset(threadId, in.length), out, 0,
+		    getSegmentLength(threadId, in.length));
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout. All
+     * parties have to contribute arrays of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the segment of the result owned by the party in, starting at
+     *            index 0 (of at least {@link #getSegmentLength(int, int)} elements)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, getSegmentOffset(threadId, in.length), out, 0,
+		    getSegmentLength(threadId, in.length));
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class ButterflyReduceScatterParty extends ButterflyBarrierParty {
+	/**
+	 * Pre-computed array of references to the partners of this party in each round.
+	 */
+	private ButterflyReduceScatterParty[] partners;
+
+	/**
+	 * The intermediate results, grown on demand. First key: parity (0 or 1). Second key:
+	 * index of the value.
+	 */
+	private final float[][] buffers;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private ButterflyReduceScatterParty(int id) {
+	    super(id);
+	    buffers = new float[2][0];
+	}
+
+	/**
+	 * Sets up the partners array for this reduce-scatter subclass.
+	 */
+	@Override
+	protected void setUpPartyData() {
+	    partners = new ButterflyReduceScatterParty[numRounds];
+	}
+
+	/**
+	 * Sets up the partners array for this reduce-scatter subclass.
+	 */
+	@Override
+	protected void setupBarrier() {
+	    for (int round = 0; round < numRounds; round++) {
+		final int partner = (id ^ Utils.powerOfTwo(round)) % numParties;
+		partners[round] = parties[partner];
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the segment of the result in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    if (buffers[parity].length < length) {
+		buffers[parity] = new float[length];
+	    }
+	    final float[] current = buffers[parity];
+	    System.arraycopy(in, 0, current, 0, length);
+	    // Start with the highest round, so that the range to reduce is halved in each step.
+	    for (int round = numRounds - 1; round >= 0; round--) {
+		partners[round].flagsIn[parity][round].set(sense);
+		while (flagsIn[parity][round].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		// Both partners hold the reduced values of the segments of 2^(round+1) parties,
+		// each one keeps the segments of the 2^round parties that include its own.
+		final int firstParty = id >> round << round;
+		final int start = getSegmentOffset(firstParty, length);
+		final int end = getSegmentOffset(firstParty + Utils.powerOfTwo(round), length);
+		// The partner only reads the other half, so the kept half may be updated in place.
+		// The last round writes directly into the output array.
+		reductor.operator(current, partners[round].buffers[parity], start,
+			round > 0 ? current : out, round > 0 ? start : 0, end - start);
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -15,10 +15,23 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
 import peschlowp.jbarrier.util.Utils;
 
 /**
  * Implementation of a butterfly barrier algorithm including a float reduction.
+ * <p>
+ * Arrays are reduced by recursive doubling, where the partners exchange the whole array in each
+ * round. This moves log(numParties) times the array length per party, so arrays of at least
+ * {@link #DEFAULT_LARGE_ARRAY_THRESHOLD} elements (or a custom threshold) are reduced following
+ * Rabenseifner's algorithm instead: a reduce-scatter by recursive halving (see
+ * {@link FloatButterflyReduceScatter}), followed by an allgather of the reduced segments by
+ * recursive doubling (see {@link FloatButterflyAllgather}). Each party then only moves about twice
+ * the array length, at the cost of twice as many rounds.
  * 
  * @version 1.0
  * 
@@ -26,11 +39,21 @@ import peschlowp.jbarrier.util.Utils;
  * @author Ivan Castilla Rodriguez
  */
 public class FloatButterflyReduction extends ButterflyBarrier implements FloatReduction {
+    /**
+     * The default minimum number of elements of arrays reduced following Rabenseifner's algorithm.
+     */
+    public static final int DEFAULT_LARGE_ARRAY_THRESHOLD = 4096;
+
     /**
      * The reduction operator used.
      */
     private final ReductionOperator reductor;
 
+    /**
+     * The minimum number of elements of arrays reduced following Rabenseifner's algorithm.
+     */
+    private final int largeArrayThreshold;
+
     /**
      * The barrier data associated to each party.
      */
@@ -51,8 +74,30 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
      */
     public FloatButterflyReduction(int numParties, Runnable barrierAction,
 	    ReductionOperator reductor) {
+	this(numParties, barrierAction, reductor, DEFAULT_LARGE_ARRAY_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @param largeArrayThreshold
+     *            the minimum number of elements of arrays reduced following Rabenseifner's
+     *            algorithm (use {@link Integer#MAX_VALUE} to always reduce by recursive doubling)
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatButterflyReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor, int largeArrayThreshold) {
 	super(numParties, barrierAction);
 	this.reductor = reductor;
+	this.largeArrayThreshold = largeArrayThreshold;
     }
 
     /**
@@ -83,6 +128,20 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
 	}
     }
 
+    /**
+     * Returns the index of the first element of the segment reduced by a party when following
+     * Rabenseifner's algorithm.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param length
+     *            the length of the arrays subject to the reduction
+     * @return the index of the first element of the segment of the party
+     */
+    private int getSegmentOffset(int threadId, int length) {
+	return (int) ((long) threadId * length / numParties);
+    }
+
     /**
      * Called by a party that reaches the barrier.
      * 
@@ -94,7 +153,102 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
      */
     @Override
     public float await(int threadId, float value) {
-	return parties[threadId].await(value);
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -117,6 +271,24 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
 	 */
 	private final float[][] values;
 
+	/**
+	 * Intermediate arrays used during array reductions, grown on demand. First key: parity (0
+	 * or 1). Second key: round number.
+	 */
+	private final float[][][] arrays;
+
+	/**
+	 * The number of arrays reduced following Rabenseifner's algorithm by this party.
+	 */
+	private long largeEpisode;
+
+	/**
+	 * Incoming flags for the allgather rounds of Rabenseifner's algorithm, holding the number
+	 * of the large array reduction of the partner. They do not depend on the sense, which is
+	 * also flipped by the reductions that do not use these flags. Index: round number.
+	 */
+	private final AtomicLong[] gatherFlagsIn;
+
 	/**
 	 * Constructor.
 	 * 
@@ -126,6 +298,12 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
 	private ButterflyReductionParty(int id) {
 	    super(id);
 	    values = new float[2][numRounds + 1];
+	    arrays = new float[2][numRounds][0];
+	    largeEpisode = 0L;
+	    gatherFlagsIn = new AtomicLong[numRounds];
+	    for (int round = 0; round < numRounds; round++) {
+		gatherFlagsIn[round] = new AtomicLong(0L);
+	    }
 	}
 
 	/**
@@ -152,14 +330,18 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
 	 * 
 	 * @param inValue
 	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 * @return the result of the reduction
 	 */
-	private float await(float inValue) {
+	private float await(float inValue, long deadline) {
+	    enter(id);
 	    values[parity][0] = inValue;
 	    for (int round = 0; round < numRounds; round++) {
 		partners[round].flagsIn[parity][round].set(sense);
 		while (flagsIn[parity][round].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		values[parity][round + 1] = reductor.operator(values[parity][round],
 			partners[round].values[parity][round]);
@@ -173,15 +355,129 @@ public class FloatButterflyReduction extends ButterflyBarrier implements FloatRe
 	    if (action != null) {
 		outSense = !outSense;
 		if (id == 0) {
-		    action.run();
+		    runAction();
 		    flagOut = outSense;
 		} else {
 		    while (flagOut != outSense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		}
 	    }
 	    return result;
 	}
+
+	/**
+	 * Called when this party reaches the barrier, reducing arrays element by element.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    final float[][] current = arrays[parity];
+	    final boolean large = length >= largeArrayThreshold;
+	    // Large arrays are reduced in the first buffer only.
+	    final int numBuffers = large ? 1 : numRounds;
+	    for (int round = 0; round < numBuffers; round++) {
+		if (current[round].length < length) {
+		    current[round] = new float[length];
+		}
+	    }
+	    System.arraycopy(in, 0, current[0], 0, length);
+	    if (large) {
+		reduceLarge(length, out, deadline);
+	    } else {
+		for (int round = 0; round < numRounds; round++) {
+		    partners[round].flagsIn[parity][round].set(sense);
+		    while (flagsIn[parity][round].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    // The last round writes directly into the output array.
+		    final float[] target = round + 1 < numRounds ? current[round + 1] : out;
+		    reductor.operator(current[round], partners[round].arrays[parity][round],
+			    target, length);
+		}
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	}
+
+	/**
+	 * Reduces arrays following Rabenseifner's algorithm, using the first intermediate array of
+	 * the current parity, which contains the values of this party, as the only buffer. In the
+	 * reduce-scatter phase, the rounds are walked from the highest to the lowest, each party
+	 * keeping the half of the range that contains its own segment. In the allgather phase, the
+	 * rounds are walked from the lowest to the highest, each party copying the segments reduced
+	 * by its partner. Since a partner only reads the part of the buffer that is not updated in
+	 * the same round, the buffer may be updated in place.
+	 * 
+	 * @param length
+	 *            the length of the arrays subject to the reduction
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void reduceLarge(int length, float[] out, long deadline) {
+	    final float[] buffer = arrays[parity][0];
+	    final long localEpisode = ++largeEpisode;
+	    for (int round = numRounds - 1; round >= 0; round--) {
+		partners[round].flagsIn[parity][round].set(sense);
+		while (flagsIn[parity][round].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		final int firstParty = id >> round << round;
+		final int start = getSegmentOffset(firstParty, length);
+		final int end = getSegmentOffset(firstParty + Utils.powerOfTwo(round), length);
+		reductor.operator(buffer, partners[round].arrays[parity][0], start, buffer, start,
+			end - start);
+	    }
+	    for (int round = 0; round < numRounds; round++) {
+		partners[round].gatherFlagsIn[round].set(localEpisode);
+		while (gatherFlagsIn[round].get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		// Both partners hold the reduced segments of 2^round parties, starting at the
+		// lowest ID.
+		final int partnerFirst = partners[round].id >> round << round;
+		final int partnerStart = getSegmentOffset(partnerFirst, length);
+		final int partnerEnd = getSegmentOffset(partnerFirst + Utils.powerOfTwo(round),
+			length);
+		// The last round writes directly into the output array.
+		final float[] target = round + 1 < numRounds ? buffer : out;
+		System.arraycopy(partners[round].arrays[parity][0], partnerStart, target,
+			partnerStart, partnerEnd - partnerStart);
+		if (target == out) {
+		    final int ownFirst = id >> round << round;
+		    final int ownStart = getSegmentOffset(ownFirst, length);
+		    final int ownEnd = getSegmentOffset(ownFirst + Utils.powerOfTwo(round), length);
+		    System.arraycopy(buffer, ownStart, out, ownStart, ownEnd - ownStart);
+		}
+	    }
+	}
     }
 }
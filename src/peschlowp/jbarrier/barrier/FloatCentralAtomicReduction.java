@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a central barrier algorithm including a float reduction, where each party
+ * combines its value into a shared accumulator when it arrives. In the
+ * {@link FloatCentralReduction}, the last party to arrive combines the values of all parties,
+ * which is a serial step on the critical path of the barrier. Here, each party combines its value
+ * with a compare-and-set loop before arriving at the counter, so that the result is available as
+ * soon as the counter trips. The operator has to be associative and commutative (e.g., minimum,
+ * maximum, or sum), and an identity element of the operator has to be provided. Sums of values
+ * subject to rounding depend on the order of arrival.
+ * <p>
+ * The accumulators of two consecutive barrier episodes are kept separately, and each one resides
+ * in its own cache line. The last party to arrive resets the accumulator of the previous episode
+ * to the identity element.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatCentralAtomicReduction extends CentralBarrier {
+    /**
+     * Distance between the accumulators (in longs), so that they reside in different cache lines.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * The reduction operator used.
+     */
+    private final ReductionOperator reductor;
+
+    /**
+     * The bits of the identity element of the reduction operator.
+     */
+    private final long identityBits;
+
+    /**
+     * The bits of the accumulators. Index: buffer index (0 or 1) plus one, times {@link #PADDING}.
+     */
+    private final AtomicLongArray accumulators;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use, which has to be commutative
+     * @param identity
+     *            the identity element of the reduction operator, e.g., zero for the sum or the
+     *            largest value of the type for the minimum
+     */
+    public FloatCentralAtomicReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor, float identity) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+	identityBits = Utils.toBits(identity);
+	accumulators = new AtomicLongArray(3 * PADDING);
+	accumulators.set(PADDING, identityBits);
+	accumulators.set(2 * PADDING, identityBits);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use, which has to be commutative
+     * @param identity
+     *            the identity element of the reduction operator, e.g., zero for the sum or the
+     *            largest value of the type for the minimum
+     */
+    public FloatCentralAtomicReduction(int numParties, ReductionOperator reductor, float identity) {
+	this(numParties, null, reductor, identity);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, contributing the identity element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	await(threadId, Utils.toFloat(identityBits));
+    }
+
+    /**
+     * Called by a party that reaches the barrier, contributing the identity element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	await(threadId, Utils.toFloat(identityBits), timeout, unit);
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    public float await(int threadId, float value) {
+	try {
+	    return awaitValue(threadId, value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return awaitValue(threadId, value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param id
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param deadline
+     *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+     * @return the result of the reduction
+     */
+    private float awaitValue(int id, float value, long deadline) {
+	enter(id);
+	boolean localGo = go;
+	final int index = localGo ? 2 * PADDING : PADDING;
+	long oldBits = accumulators.get(index);
+	for (;;) {
+	    final long newBits = Utils.toBits(reductor.operator(Utils.toFloat(oldBits), value));
+	    // Nothing to do if the value does not change the accumulator (e.g., for the minimum).
+	    if (newBits == oldBits || accumulators.compareAndSet(index, oldBits, newBits)) {
+		break;
+	    }
+	    oldBits = accumulators.get(index);
+	}
+	if (counter.incrementAndGet() == numParties) {
+	    counter.set(0);
+	    // All parties have left the previous episode, so its accumulator may be reused.
+	    accumulators.set(localGo ? PADDING : 2 * PADDING, identityBits);
+	    // If there is a barrier action, execute it.
+	    if (action != null) {
+		runAction();
+	    }
+	    go = !go;
+	} else {
+	    while (go == localGo) {
+		// Busy-wait.
+		checkWait(deadline);
+	    }
+	}
+	return Utils.toFloat(accumulators.get(index));
+    }
+}
@@ -15,6 +15,9 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -41,6 +44,11 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
      */
     private float result;
 
+    /**
+     * Stores the result of an array reduction, grown on demand.
+     */
+    private float[] results = new float[0];
+
     /**
      * Constructor.
      * 
@@ -52,7 +60,8 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
      * @param reductor
      *            the reduction operator to use
      */
-    public FloatCentralReduction(int numParties, Runnable barrierAction, ReductionOperator reductor) {
+    public FloatCentralReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor) {
 	super(numParties, barrierAction);
 	this.reductor = reductor;
 	parties = new CentralReductionParty[numParties];
@@ -86,7 +95,102 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
      */
     @Override
     public float await(int threadId, float value) {
-	return parties[threadId].await(value);
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -101,7 +205,6 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
 	/**
 	 * Unique id of this party [0 .. numParties-1].
 	 */
-	@SuppressWarnings("unused")
 	private final int id;
 
 	/**
@@ -109,6 +212,11 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
 	 */
 	private float value;
 
+	/**
+	 * The values contributed to an array reduction.
+	 */
+	private float[] values;
+
 	/**
 	 * Constructor.
 	 * 
@@ -124,9 +232,12 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
 	 * 
 	 * @param inValue
 	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 * @return the result of the reduction
 	 */
-	private float await(float inValue) {
+	private float await(float inValue, long deadline) {
+	    enter(id);
 	    value = inValue;
 	    boolean localGo = go;
 	    if (counter.incrementAndGet() == numParties) {
@@ -138,15 +249,56 @@ public class FloatCentralReduction extends CentralBarrier implements FloatReduct
 		result = tmpResult;
 		// If there is a barrier action, execute it.
 		if (action != null) {
-		    action.run();
+		    runAction();
 		}
 		go = !go;
 	    } else {
 		while (go == localGo) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 	    }
 	    return result;
 	}
+
+	/**
+	 * Called when this party reaches the barrier, reducing arrays element by element.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    values = in;
+	    boolean localGo = go;
+	    if (counter.incrementAndGet() == numParties) {
+		counter.set(0);
+		if (results.length < length) {
+		    results = new float[length];
+		}
+		final float[] tmpResults = results;
+		System.arraycopy(parties[0].values, 0, tmpResults, 0, length);
+		for (int i = 1; i < numParties; i++) {
+		    reductor.operator(tmpResults, parties[i].values, tmpResults, length);
+		}
+		// If there is a barrier action, execute it.
+		if (action != null) {
+		    runAction();
+		}
+		go = !go;
+	    } else {
+		while (go == localGo) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    values = null;
+	    System.arraycopy(results, 0, out, 0, length);
+	}
     }
 }
@@ -15,10 +15,24 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
 import peschlowp.jbarrier.util.Utils;
 
 /**
  * Implementation of a dissemination barrier algorithm including a float reduction.
+ * <p>
+ * Arrays are reduced by exchanging the whole array in each round, which moves log(numParties)
+ * times the array length per party. Arrays of at least {@link #DEFAULT_LARGE_ARRAY_THRESHOLD}
+ * elements (or a custom threshold) are reduced following a ring schedule instead, where the array
+ * is split into one segment per party and each party only reads from its predecessor in the ring
+ * (the incoming partner of the first dissemination round). In the first numParties-1 steps, the
+ * segments are passed along the ring and reduced (reduce-scatter), and in the next
+ * numParties-1 steps, the reduced segments are passed along the ring once more (allgather). Each
+ * party then only moves about twice the array length, at the cost of 2*(numParties-1) steps.
  * 
  * @version 1.0
  * 
@@ -26,11 +40,21 @@ import peschlowp.jbarrier.util.Utils;
  * @author Ivan Castilla Rodriguez
  */
 public class FloatDisseminationReduction extends DisseminationBarrier implements FloatReduction {
+    /**
+     * The default minimum number of elements of arrays reduced following the ring schedule.
+     */
+    public static final int DEFAULT_LARGE_ARRAY_THRESHOLD = 16384;
+
     /**
      * The reduction operator used.
      */
     private final ReductionOperator reductor;
 
+    /**
+     * The minimum number of elements of arrays reduced following the ring schedule.
+     */
+    private final int largeArrayThreshold;
+
     /**
      * The barrier data associated to each party.
      */
@@ -51,8 +75,30 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
      */
     public FloatDisseminationReduction(int numParties, Runnable barrierAction,
 	    ReductionOperator reductor) {
+	this(numParties, barrierAction, reductor, DEFAULT_LARGE_ARRAY_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @param largeArrayThreshold
+     *            the minimum number of elements of arrays reduced following the ring schedule
+     *            (use {@link Integer#MAX_VALUE} to always exchange whole arrays)
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatDisseminationReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor, int largeArrayThreshold) {
 	super(numParties, barrierAction);
 	this.reductor = reductor;
+	this.largeArrayThreshold = largeArrayThreshold;
     }
 
     /**
@@ -83,6 +129,20 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
 	}
     }
 
+    /**
+     * Returns the index of the first element of a segment when following the ring schedule.
+     * 
+     * @param segment
+     *            the index of the segment [0 .. numParties], where <code>numParties</code> denotes
+     *            the end of the array
+     * @param length
+     *            the length of the arrays subject to the reduction
+     * @return the index of the first element of the segment
+     */
+    private int getSegmentOffset(int segment, int length) {
+	return (int) ((long) segment * length / numParties);
+    }
+
     /**
      * Called by a party that reaches the barrier.
      * 
@@ -94,7 +154,102 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
      */
     @Override
     public float await(int threadId, float value) {
-	return parties[threadId].await(value);
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -124,6 +279,24 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
 	 */
 	private final float[][] values;
 
+	/**
+	 * Intermediate arrays used during array reductions, grown on demand. First key: parity (0
+	 * or 1). Second key: round number.
+	 */
+	private final float[][][] arrays;
+
+	/**
+	 * The number of arrays reduced following the ring schedule by this party.
+	 */
+	private long largeEpisode;
+
+	/**
+	 * Incoming flags for the steps of the ring schedule, holding the number of the large array
+	 * reduction of the predecessor. They do not depend on the sense, which is also flipped by
+	 * the reductions that do not use these flags. Index: step number.
+	 */
+	private final AtomicLong[] ringFlagsIn;
+
 	/**
 	 * Constructor.
 	 * 
@@ -133,6 +306,13 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
 	private DisseminationReductionParty(int id) {
 	    super(id);
 	    values = new float[2][numRounds + 1];
+	    arrays = new float[2][numRounds][0];
+	    final int numSteps = 2 * (numParties - 1);
+	    largeEpisode = 0L;
+	    ringFlagsIn = new AtomicLong[numSteps];
+	    for (int step = 0; step < numSteps; step++) {
+		ringFlagsIn[step] = new AtomicLong(0L);
+	    }
 	}
 
 	/**
@@ -166,14 +346,18 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
 	 * 
 	 * @param inValue
 	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 * @return the result of the reduction
 	 */
-	private float await(float inValue) {
+	private float await(float inValue, long deadline) {
+	    enter(id);
 	    values[parity][0] = inValue;
 	    for (int round = 0; round < numRounds; round++) {
 		partnersOut[round].flagsIn[parity][round].set(sense);
 		while (flagsIn[parity][round].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		values[parity][round + 1] = reductor.operator(values[parity][round],
 			partnersIn[round].values[parity][round]);
@@ -187,15 +371,127 @@ public class FloatDisseminationReduction extends DisseminationBarrier implements
 	    if (action != null) {
 		outSense = !outSense;
 		if (id == 0) {
-		    action.run();
+		    runAction();
 		    flagOut = outSense;
 		} else {
 		    while (flagOut != outSense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		}
 	    }
 	    return result;
 	}
+
+	/**
+	 * Called when this party reaches the barrier, reducing arrays element by element.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    final float[][] current = arrays[parity];
+	    final boolean large = length >= largeArrayThreshold;
+	    // Large arrays are reduced in the first buffer only.
+	    final int numBuffers = large ? 1 : numRounds;
+	    for (int round = 0; round < numBuffers; round++) {
+		if (current[round].length < length) {
+		    current[round] = new float[length];
+		}
+	    }
+	    System.arraycopy(in, 0, current[0], 0, length);
+	    if (large) {
+		reduceLarge(length, out, deadline);
+		// Keep the flags of the other reductions in step with the sense, without waiting.
+		for (int round = 0; round < numRounds; round++) {
+		    partnersOut[round].flagsIn[parity][round].set(sense);
+		}
+	    } else {
+		for (int round = 0; round < numRounds; round++) {
+		    partnersOut[round].flagsIn[parity][round].set(sense);
+		    while (flagsIn[parity][round].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    // The last round writes directly into the output array.
+		    final float[] target = round + 1 < numRounds ? current[round + 1] : out;
+		    reductor.operator(current[round], partnersIn[round].arrays[parity][round],
+			    target, length);
+		}
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	}
+
+	/**
+	 * Reduces arrays following the ring schedule, using the first intermediate array of the
+	 * current parity, which contains the values of this party, as the only buffer. In step
+	 * <i>s</i> of the reduce-scatter phase, segment (id-<i>s</i>-1) mod numParties is reduced
+	 * with the one of the predecessor, so that this party ends up with the fully reduced
+	 * segment (id+1) mod numParties. In step <i>s</i> of the allgather phase, segment
+	 * (id-<i>s</i>) mod numParties is copied from the predecessor. The predecessor never
+	 * updates a segment again after it has been read by this party, so the buffer may be
+	 * updated in place.
+	 * 
+	 * @param length
+	 *            the length of the arrays subject to the reduction
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void reduceLarge(int length, float[] out, long deadline) {
+	    final float[] buffer = arrays[parity][0];
+	    final int numSteps = 2 * (numParties - 1);
+	    final long localEpisode = ++largeEpisode;
+	    for (int step = 0; step < numSteps; step++) {
+		partnersOut[0].ringFlagsIn[step].set(localEpisode);
+		while (ringFlagsIn[step].get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		final int segment;
+		if (step < numParties - 1) {
+		    segment = (id - step - 1 + numParties) % numParties;
+		} else {
+		    segment = (id - (step - numParties + 1) + numParties) % numParties;
+		}
+		final int start = getSegmentOffset(segment, length);
+		final int end = getSegmentOffset(segment + 1, length);
+		final float[] predecessorBuffer = partnersIn[0].arrays[parity][0];
+		if (step < numParties - 1) {
+		    reductor.operator(buffer, predecessorBuffer, start, buffer, start, end - start);
+		} else if (step + 1 < numSteps) {
+		    System.arraycopy(predecessorBuffer, start, buffer, start, end - start);
+		} else {
+		    // The successor does not read the last segment, so it is copied directly into
+		    // the output array along with the other segments.
+		    System.arraycopy(predecessorBuffer, start, out, start, end - start);
+		    System.arraycopy(buffer, 0, out, 0, start);
+		    System.arraycopy(buffer, end, out, end, length - end);
+		}
+	    }
+	}
     }
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a dissemination barrier algorithm including a float prefix scan. Each party
+ * contributes a value and receives the reduction over the values of the parties 0..id (inclusive
+ * scan) or 0..id-1 (exclusive scan), e.g., the output offsets of the parties in a parallel
+ * compaction step. In round <i>r</i>, a party only combines the value of its incoming partner if
+ * the partner has a lower ID, so that after all rounds each party holds its prefix (Hillis-Steele
+ * scheme). The values are combined in the order of the party IDs. After a eureka (see
+ * {@link AbstractBarrier}), the <code>await</code> methods return the value contributed by the
+ * calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatDisseminationScan extends DisseminationBarrier {
+    /**
+     * The reduction operator used.
+     */
+    private final ReductionOperator reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private DisseminationScanParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatDisseminationScan(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public FloatDisseminationScan(int numParties, ReductionOperator reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this scan subclass.
+     */
+    @Override
+    protected void setUpParties() {
+	parties = new DisseminationScanParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new DisseminationScanParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, computing an inclusive scan.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the scan
+     * @return the reduction over the values of the parties 0..<code>threadId</code>
+     */
+    public float awaitInclusive(int threadId, float value) {
+	try {
+	    return parties[threadId].await(value, true, value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, computing an inclusive scan and waiting at most
+     * for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the scan
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the reduction over the values of the parties 0..<code>threadId</code>
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float awaitInclusive(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, true, value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, computing an exclusive scan.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the scan
+     * @param identity
+     *            the result for party 0, usually the identity of the reduction operator (e.g., 0
+     *            for a sum)
+     * @return the reduction over the values of the parties 0..<code>threadId</code>-1, or
+     *         <code>identity</code> for party 0
+     */
+    public float awaitExclusive(int threadId, float value, float identity) {
+	try {
+	    return parties[threadId].await(value, false, identity, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, computing an exclusive scan and waiting at most
+     * for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the scan
+     * @param identity
+     *            the result for party 0, usually the identity of the reduction operator (e.g., 0
+     *            for a sum)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the reduction over the values of the parties 0..<code>threadId</code>-1, or
+     *         <code>identity</code> for party 0
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float awaitExclusive(int threadId, float value, float identity, long timeout,
+	    TimeUnit unit) throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, false, identity, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class DisseminationScanParty extends DisseminationBarrierParty {
+	/**
+	 * Pre-computed array of references to my outgoing partners (whose flag I set) in every
+	 * round.
+	 */
+	private DisseminationScanParty[] partnersOut;
+
+	/**
+	 * Pre-computed array of references to my incoming partners (those that set my flag) in
+	 * every round.
+	 */
+	private DisseminationScanParty[] partnersIn;
+
+	/**
+	 * The number of rounds in which the incoming partner has a lower ID than this party, i.e.,
+	 * in which its value is combined.
+	 */
+	private int numCombiningRounds;
+
+	/**
+	 * Intermediate (inclusive) values used during the scan. First key: parity (0 or 1). Second
+	 * key: round number.
+	 */
+	private final float[][] values;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier.
+	 */
+	private DisseminationScanParty(int id) {
+	    super(id);
+	    values = new float[2][numRounds + 1];
+	}
+
+	/**
+	 * Sets up the partners array for this scan subclass.
+	 */
+	@Override
+	protected void setUpPartyData() {
+	    partnersOut = new DisseminationScanParty[numRounds];
+	    partnersIn = new DisseminationScanParty[numRounds];
+	}
+
+	/**
+	 * Sets up the partners array for this scan subclass.
+	 */
+	@Override
+	protected void setupBarrier() {
+	    numCombiningRounds = 0;
+	    for (int round = 0; round < numRounds; round++) {
+		final int outPartner = (id + Utils.powerOfTwo(round)) % numParties;
+		partnersOut[round] = parties[outPartner];
+
+		int inPartner = id - Utils.powerOfTwo(round);
+		if (inPartner >= 0) {
+		    numCombiningRounds = round + 1;
+		} else {
+		    inPartner += numParties;
+		}
+		partnersIn[round] = parties[inPartner];
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inValue
+	 *            the value contributed to the scan by this thread
+	 * @param inclusive
+	 *            <code>true</code> for an inclusive scan, <code>false</code> for an exclusive
+	 *            scan
+	 * @param identity
+	 *            the result of an exclusive scan for party 0
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the result of the scan
+	 */
+	private float await(float inValue, boolean inclusive, float identity, long deadline) {
+	    enter(id);
+	    values[parity][0] = inValue;
+	    // The reduction over the values of the parties id-2^round+1..id-1.
+	    float exclusive = identity;
+	    for (int round = 0; round < numRounds; round++) {
+		partnersOut[round].flagsIn[parity][round].set(sense);
+		while (flagsIn[parity][round].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		if (round < numCombiningRounds) {
+		    final float partnerValue = partnersIn[round].values[parity][round];
+		    values[parity][round + 1] = reductor.operator(partnerValue,
+			    values[parity][round]);
+		    exclusive = round == 0 ? partnerValue : reductor.operator(partnerValue,
+			    exclusive);
+		} else {
+		    values[parity][round + 1] = values[parity][round];
+		}
+	    }
+	    final float result = inclusive ? values[parity][numRounds] : exclusive;
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	    return result;
+	}
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a pairwise exchange barrier algorithm including a float all-to-all exchange.
+ * Each party provides a value (or a block of values of fixed length) for each party, ordered by
+ * party ID, and receives the values intended for it from all parties, ordered by party ID, in a
+ * caller-provided array. The exchange takes numParties-1 steps. In step <i>k</i>, party <i>i</i>
+ * reads its block from the input array of party <i>i</i> XOR <i>k</i> if the number of parties is
+ * a power of two (so that the parties exchange their blocks pairwise, like in the
+ * {@link ButterflyBarrier}), and from party <i>i</i>-<i>k</i> otherwise (like in the
+ * {@link DisseminationBarrier}). The blocks are copied directly from the input arrays into the
+ * output arrays, without intermediate buffers, and no two parties write to the same cache line
+ * except for the flags of their own steps.
+ * <p>
+ * A party only returns when all parties have read their blocks from its input array. If there is
+ * a barrier action, it is executed by party 0 after it has received all blocks, and no party
+ * returns before the action is completed. After a eureka (see {@link AbstractBarrier}), the
+ * <code>await</code> methods only store the block the calling party provided for itself.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatPairwiseAlltoall extends AbstractBarrier {
+    /**
+     * Distance between the flags of two steps (in longs), so that the flags set by different
+     * parties reside in different cache lines.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * Empty array used if no values are exchanged.
+     */
+    private static final float[] EMPTY = new float[0];
+
+    /**
+     * Whether the parties are paired by XOR, which requires the number of parties to be a power
+     * of two.
+     */
+    private final boolean isPairwise;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private final PairwiseAlltoallParty[] parties;
+
+    /**
+     * Out flag set by party 0 after the barrier action, holding the number of the barrier
+     * episode.
+     */
+    private final AtomicLong flagOut;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatPairwiseAlltoall(int numParties, Runnable barrierAction) {
+	super(numParties, barrierAction, null);
+	isPairwise = Utils.isPowerOfTwo(numParties);
+	flagOut = new AtomicLong(0L);
+	parties = new PairwiseAlltoallParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new PairwiseAlltoallParty(i);
+	}
+    }
+
+    /**
+     * Constructor (if no action is used).
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatPairwiseAlltoall(int numParties) {
+	this(numParties, null);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, without exchanging any values.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	try {
+	    parties[threadId].await(EMPTY, EMPTY, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout and
+     * without exchanging any values.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(EMPTY, EMPTY, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, exchanging a block of values with each party.
+     * All parties have to provide arrays of the same length, which has to be a multiple of the
+     * number of parties. For a single value per party, the arrays have <code>numParties</code>
+     * elements.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the blocks for all parties, the block for party <i>i</i> starting at index
+     *            <i>i</i>*<code>in.length</code>/<code>numParties</code>
+     * @param out
+     *            the array to store the blocks received from all parties in, the block of party
+     *            <i>i</i> starting at index <i>i</i>*<code>in.length</code>/<code>numParties</code>
+     *            (of at least <code>in.length</code> elements)
+     * @throws IllegalArgumentException
+     *             if the length of <code>in</code> is not a multiple of the number of parties, or
+     *             if <code>out</code> is shorter than <code>in</code>
+     */
+    public void await(int threadId, float[] in, float[] out) {
+	checkArrays(in, out);
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    final int length = in.length / numParties;
+	    System.arraycopy(in, threadId * length, out, threadId * length, length);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, exchanging a block of values with each party and
+     * waiting at most for the given timeout. All parties have to provide arrays of the same
+     * length, which has to be a multiple of the number of parties. For a single value per party,
+     * the arrays have <code>numParties</code> elements.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the blocks for all parties, the block for party <i>i</i> starting at index
+     *            <i>i</i>*<code>in.length</code>/<code>numParties</code>
+     * @param out
+     *            the array to store the blocks received from all parties in, the block of party
+     *            <i>i</i> starting at index <i>i</i>*<code>in.length</code>/<code>numParties</code>
+     *            (of at least <code>in.length</code> elements)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     * @throws IllegalArgumentException
+     *             if the length of <code>in</code> is not a multiple of the number of parties, or
+     *             if <code>out</code> is shorter than <code>in</code>
+     */
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkArrays(in, out);
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    final int length = in.length / numParties;
+	    System.arraycopy(in, threadId * length, out, threadId * length, length);
+	}
+    }
+
+    /**
+     * Checks the validity of the arrays passed by a party, before the party enters the barrier.
+     * 
+     * @param in
+     *            the blocks for all parties
+     * @param out
+     *            the array to store the blocks received from all parties in
+     * @throws IllegalArgumentException
+     *             if the length of <code>in</code> is not a multiple of the number of parties, or
+     *             if <code>out</code> is shorter than <code>in</code>
+     */
+    private void checkArrays(float[] in, float[] out) {
+	if (in.length % numParties != 0) {
+	    throw new IllegalArgumentException("Array length " + in.length
+		    + " is not a multiple of the number of parties!");
+	}
+	if (out.length < in.length) {
+	    throw new IllegalArgumentException("Output array is shorter than input array!");
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class PairwiseAlltoallParty {
+	/**
+	 * Unique id of this party [0 .. numParties-1].
+	 */
+	private final int id;
+
+	/**
+	 * The number of the current barrier episode.
+	 */
+	private long episode;
+
+	/**
+	 * Pre-computed IDs of the parties this party reads from. Index: step number.
+	 */
+	private final int[] sources;
+
+	/**
+	 * Arrival flag of this party, holding the number of the barrier episode its input array is
+	 * available for.
+	 */
+	private final AtomicLong arrivalFlag;
+
+	/**
+	 * Flags set by the readers of this party after reading their blocks, holding the number of
+	 * the barrier episode (padded, see {@link #PADDING}). Index: step number.
+	 */
+	private final AtomicLongArray readFlags;
+
+	/**
+	 * The input array of the current barrier episode, read by the other parties.
+	 */
+	private float[] in;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private PairwiseAlltoallParty(int id) {
+	    this.id = id;
+	    episode = 0L;
+	    sources = new int[numParties];
+	    for (int step = 1; step < numParties; step++) {
+		sources[step] = isPairwise ? id ^ step : (id - step + numParties) % numParties;
+	    }
+	    arrivalFlag = new AtomicLong(0L);
+	    readFlags = new AtomicLongArray(numParties * PADDING);
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inArray
+	 *            the blocks for all parties
+	 * @param out
+	 *            the array to store the blocks received from all parties in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] inArray, float[] out, long deadline) {
+	    enter(id);
+	    final long localEpisode = ++episode;
+	    final int length = inArray.length / numParties;
+	    final int offset = id * length;
+	    in = inArray;
+	    arrivalFlag.set(localEpisode);
+	    System.arraycopy(inArray, offset, out, offset, length);
+	    for (int step = 1; step < numParties; step++) {
+		final PairwiseAlltoallParty source = parties[sources[step]];
+		while (source.arrivalFlag.get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		System.arraycopy(source.in, offset, out, source.id * length, length);
+		// The reader of the source in this step is this party.
+		source.readFlags.set(step * PADDING, localEpisode);
+	    }
+	    // Wait until all readers are done with the input array.
+	    for (int step = 1; step < numParties; step++) {
+		while (readFlags.get(step * PADDING) != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    in = null;
+	    // If there is a barrier action, let party 0 execute it.
+	    if (action != null) {
+		if (id == 0) {
+		    runAction();
+		    flagOut.set(localEpisode);
+		} else {
+		    while (flagOut.get() != localEpisode) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -15,8 +15,14 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
- * Interface for barriers supporting primitive float reductions.
+ * Interface for barriers supporting primitive float reductions. After a eureka (see
+ * {@link AbstractBarrier}), the <code>await</code> methods return immediately, providing the value
+ * contributed by the calling party instead of the result of the reduction.
  * 
  * @version 1.0
  * 
@@ -34,4 +40,110 @@ public interface FloatReduction {
      * @return the result of the reduction
      */
     public float await(int threadId, float value);
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout. If the
+     * timeout elapses or the party is interrupted, the barrier is broken.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException;
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element. All parties
+     * have to provide arrays of the same length. Intermediate results are kept in buffers owned by
+     * the barrier, which are only reallocated when the array length increases, so there is no
+     * allocation per barrier episode. After a eureka, <code>in</code> is copied to
+     * <code>out</code>.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction, not modified by the barrier
+     * @param out
+     *            the array to store the results of the reduction in, of at least the length of
+     *            <code>in</code> (may be identical to <code>in</code>)
+     */
+    public void await(int threadId, float[] in, float[] out);
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout. If the timeout elapses or the party is interrupted, the
+     * barrier is broken.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction, not modified by the barrier
+     * @param out
+     *            the array to store the results of the reduction in, of at least the length of
+     *            <code>in</code> (may be identical to <code>in</code>)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException;
+
+    /**
+     * Provides the number of parties taking part in the barrier.
+     * 
+     * @return the number of parties taking part in the barrier
+     */
+    public int getNumParties();
+
+    /**
+     * Checks whether the barrier is broken.
+     * 
+     * @return <code>true</code> if the barrier is broken, otherwise <code>false</code>
+     */
+    public boolean isBroken();
+
+    /**
+     * Raises a eureka, so that the current or next <code>await</code> call of every party returns
+     * immediately. Only the first eureka takes effect.
+     * 
+     * @param threadId
+     *            the ID of the party raising the eureka
+     * @param payload
+     *            the payload of the eureka, e.g., an index identifying the solution found
+     */
+    public void eureka(int threadId, long payload);
+
+    /**
+     * Checks whether a eureka has been raised.
+     * 
+     * @return <code>true</code> if a eureka has been raised, otherwise <code>false</code>
+     */
+    public boolean isEureka();
+
+    /**
+     * Provides the payload of the eureka. Only meaningful if {@link #isEureka()} returns
+     * <code>true</code>.
+     * 
+     * @return the payload of the eureka
+     */
+    public long getEurekaPayload();
 }
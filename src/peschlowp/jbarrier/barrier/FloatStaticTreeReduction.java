@@ -15,6 +15,10 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Implementation of a static tree barrier algorithm including a float reduction.
  * 
@@ -39,6 +43,11 @@ public class FloatStaticTreeReduction extends StaticTreeBarrier implements Float
      */
     private float result;
 
+    /**
+     * Stores the result of an array reduction, grown on demand.
+     */
+    private float[] results = new float[0];
+
     /**
      * Constructor.
      * 
@@ -95,7 +104,102 @@ public class FloatStaticTreeReduction extends StaticTreeBarrier implements Float
      */
     @Override
     public float await(int threadId, float value) {
-	return parties[threadId].await(value);
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -112,6 +216,11 @@ public class FloatStaticTreeReduction extends StaticTreeBarrier implements Float
 	 */
 	private float value;
 
+	/**
+	 * Intermediate values used during an array reduction, grown on demand.
+	 */
+	private float[] values;
+
 	/**
 	 * Constructor.
 	 * 
@@ -120,6 +229,7 @@ public class FloatStaticTreeReduction extends StaticTreeBarrier implements Float
 	 */
 	private StaticTreeReductionParty(int id) {
 	    super(id);
+	    values = new float[0];
 	}
 
 	/**
@@ -127,53 +237,136 @@ public class FloatStaticTreeReduction extends StaticTreeBarrier implements Float
 	 * 
 	 * @param inValue
 	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 * @return the result of the reduction
 	 */
-	private float await(float inValue) {
+	private float await(float inValue, long deadline) {
+	    enter(id);
 	    value = inValue;
 	    sense = !sense;
 	    if (id == 0) {
 		while (flags[1].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		value = reductor.operator(value, parties[1].value);
 		if (numParties > 2) {
 		    while (flags[2].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    value = reductor.operator(value, parties[2].value);
 		    if (numParties > 3) {
 			while (flags[numParties - 1].get() != sense) {
 			    // Busy-wait.
+			    checkWait(deadline);
 			}
 			result = reductor.operator(value, parties[numParties - 1].value);
 		    }
 		}
 		// If there is a barrier action, execute it.
 		if (action != null) {
-		    action.run();
+		    runAction();
 		}
 		flagOut = sense;
 	    } else if (id < THRESH) {
 		while (flags[LEFT_CHILD].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		value = reductor.operator(value, parties[LEFT_CHILD].value);
 		while (flags[RIGHT_CHILD].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 		value = reductor.operator(value, parties[RIGHT_CHILD].value);
 		flags[id].set(sense);
 		while (flagOut != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 	    } else {
 		flags[id].set(sense);
 		while (flagOut != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 	    }
 	    return result;
 	}
+
+	/**
+	 * Called when this party reaches the barrier, reducing arrays element by element.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    if (values.length < length) {
+		values = new float[length];
+	    }
+	    System.arraycopy(in, 0, values, 0, length);
+	    sense = !sense;
+	    if (id == 0) {
+		while (flags[1].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		reductor.operator(values, parties[1].values, values, length);
+		if (numParties > 2) {
+		    while (flags[2].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    reductor.operator(values, parties[2].values, values, length);
+		    if (numParties > 3) {
+			while (flags[numParties - 1].get() != sense) {
+			    // Busy-wait.
+			    checkWait(deadline);
+			}
+			reductor.operator(values, parties[numParties - 1].values, values, length);
+		    }
+		}
+		if (results.length < length) {
+		    results = new float[length];
+		}
+		System.arraycopy(values, 0, results, 0, length);
+		// If there is a barrier action, execute it.
+		if (action != null) {
+		    runAction();
+		}
+		flagOut = sense;
+	    } else if (id < THRESH) {
+		while (flags[LEFT_CHILD].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		reductor.operator(values, parties[LEFT_CHILD].values, values, length);
+		while (flags[RIGHT_CHILD].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		reductor.operator(values, parties[RIGHT_CHILD].values, values, length);
+		flags[id].set(sense);
+		while (flagOut != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    } else {
+		flags[id].set(sense);
+		while (flagOut != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    System.arraycopy(results, 0, out, 0, length);
+	}
     }
 }
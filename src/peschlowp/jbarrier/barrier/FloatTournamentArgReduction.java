@@ -0,0 +1,299 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of a tournament barrier algorithm including a float argmin/argmax reduction. Each
+ * party contributes a value together with an index (by default, its ID), and the (value, index)
+ * pair is carried through the rounds of the tournament. The reduction operator selects one of two
+ * values, so it has to be a selection operator like {@link ReductionOperator.MinimumReduction} or
+ * {@link ReductionOperator.MaximumReduction}. If two values are equal, the lower index wins, so the
+ * result is deterministic. The <code>await</code> methods return the selected value, and the
+ * associated index may be retrieved via {@link #getIndex(int)} without any allocation. After a
+ * eureka (see {@link AbstractBarrier}), the <code>await</code> methods return the value and index
+ * contributed by the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatTournamentArgReduction extends TournamentBarrier {
+    /**
+     * The reduction operator used.
+     */
+    private final ReductionOperator reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private TournamentArgReductionParty[] parties;
+
+    /**
+     * Stores the value of the result of the reduction.
+     */
+    private float result;
+
+    /**
+     * Stores the index of the result of the reduction.
+     */
+    private int resultIndex;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the selection operator to use
+     */
+    public FloatTournamentArgReduction(int numParties, Runnable barrierAction,
+	    ReductionOperator reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the selection operator to use
+     */
+    public FloatTournamentArgReduction(int numParties, ReductionOperator reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduction subclass.
+     */
+    @Override
+    protected void setUpParties() {
+	parties = new TournamentArgReductionParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new TournamentArgReductionParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, using the ID of the party as index.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the selected value
+     */
+    public float await(int threadId, float value) {
+	return await(threadId, value, threadId);
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param index
+     *            the index associated to the value
+     * @return the selected value
+     */
+    public float await(int threadId, float value, int index) {
+	try {
+	    return parties[threadId].await(value, index, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    parties[threadId].outIndex = index;
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param index
+     *            the index associated to the value
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the selected value
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float await(int threadId, float value, int index, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, index, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    parties[threadId].outIndex = index;
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Provides the index associated to the value selected in the last barrier episode of a party.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @return the index associated to the selected value
+     */
+    public int getIndex(int threadId) {
+	return parties[threadId].outIndex;
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class TournamentArgReductionParty extends TournamentBarrierParty {
+	/**
+	 * Intermediate value used during the reduction.
+	 */
+	private float value;
+
+	/**
+	 * Index associated to the intermediate value.
+	 */
+	private int index;
+
+	/**
+	 * Index associated to the result of the last barrier episode of this party.
+	 */
+	private int outIndex;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this thread within the barrier.
+	 */
+	private TournamentArgReductionParty(int id) {
+	    super(id);
+	}
+
+	/**
+	 * Combines the intermediate (value, index) pair of this party with the one of another
+	 * party.
+	 * 
+	 * @param other
+	 *            the other party
+	 */
+	private void combine(TournamentArgReductionParty other) {
+	    final float otherValue = other.value;
+	    if (otherValue == value) {
+		if (other.index < index) {
+		    index = other.index;
+		}
+	    } else if (reductor.operator(value, otherValue) == otherValue) {
+		value = otherValue;
+		index = other.index;
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inValue
+	 *            the value contributed to the reduction by this thread
+	 * @param inIndex
+	 *            the index associated to the value
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the selected value
+	 */
+	private float await(float inValue, int inIndex, long deadline) {
+	    enter(id);
+	    value = inValue;
+	    index = inIndex;
+	    sense = !sense;
+	    int currentRound = 0;
+	    for (;;) {
+		final Round roundObj = rounds[currentRound];
+		switch (roundObj.role) {
+		case WINNER:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    combine(parties[roundObj.partnerId]);
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case WILDCARD:
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case LOSER:
+		    parties[roundObj.partnerId].flags[currentRound].set(sense);
+		    // Wait for the tournament winner (root).
+		    while (flagOut != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		case ROOT:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    combine(parties[roundObj.partnerId]);
+		    result = value;
+		    resultIndex = index;
+		    // If there is a barrier action, execute it.
+		    if (action != null) {
+			runAction();
+		    }
+		    flagOut = sense;
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		}
+		// Exit for loop.
+		break;
+	    }
+	    outIndex = resultIndex;
+	    return result;
+	}
+    }
+}
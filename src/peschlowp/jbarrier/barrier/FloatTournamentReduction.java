@@ -15,6 +15,10 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Implementation of a tournament barrier algorithm including a float reduction.
  * 
@@ -39,6 +43,11 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
      */
     private float result;
 
+    /**
+     * Stores the result of an array reduction, grown on demand.
+     */
+    private float[] results = new float[0];
+
     /**
      * Constructor.
      * 
@@ -93,7 +102,102 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
      */
     @Override
     public float await(int threadId, float value) {
-	return parties[threadId].await(value);
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public float await(int threadId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out) {
+	try {
+	    parties[threadId].await(in, out, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, reducing arrays element by element and waiting
+     * at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param in
+     *            the values subject to the reduction
+     * @param out
+     *            the array to store the results of the reduction in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, float[] in, float[] out, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(in, out, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    System.arraycopy(in, 0, out, 0, in.length);
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -110,6 +214,11 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 	 */
 	private float value;
 
+	/**
+	 * Intermediate values used during an array reduction, grown on demand.
+	 */
+	private float[] values;
+
 	/**
 	 * Constructor.
 	 * 
@@ -118,6 +227,7 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 	 */
 	private TournamentReductionParty(int id) {
 	    super(id);
+	    values = new float[0];
 	}
 
 	/**
@@ -125,9 +235,12 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 	 * 
 	 * @param inValue
 	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 * @return the result of the reduction
 	 */
-	private float await(float inValue) {
+	private float await(float inValue, long deadline) {
+	    enter(id);
 	    value = inValue;
 	    sense = !sense;
 	    int currentRound = 0;
@@ -137,6 +250,7 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 		case WINNER:
 		    while (flags[currentRound].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    value = reductor.operator(value, parties[roundObj.partnerId].value);
 		    ++currentRound;
@@ -151,17 +265,19 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 		    // Wait for the tournament winner (root).
 		    while (flagOut != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    // Exit switch statement (and thus the for loop).
 		    break;
 		case ROOT:
 		    while (flags[currentRound].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    result = reductor.operator(value, parties[roundObj.partnerId].value);
 		    // If there is a barrier action, execute it.
 		    if (action != null) {
-			action.run();
+			runAction();
 		    }
 		    flagOut = sense;
 		    // Exit switch statement (and thus the for loop).
@@ -172,5 +288,72 @@ public class FloatTournamentReduction extends TournamentBarrier implements Float
 	    }
 	    return result;
 	}
+
+	/**
+	 * Called when this party reaches the barrier, reducing arrays element by element.
+	 * 
+	 * @param in
+	 *            the values contributed to the reduction by this thread
+	 * @param out
+	 *            the array to store the results of the reduction in
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(float[] in, float[] out, long deadline) {
+	    enter(id);
+	    final int length = in.length;
+	    if (values.length < length) {
+		values = new float[length];
+	    }
+	    System.arraycopy(in, 0, values, 0, length);
+	    sense = !sense;
+	    int currentRound = 0;
+	    for (;;) {
+		final Round roundObj = rounds[currentRound];
+		switch (roundObj.role) {
+		case WINNER:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    reductor.operator(values, parties[roundObj.partnerId].values, values, length);
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case WILDCARD:
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case LOSER:
+		    parties[roundObj.partnerId].flags[currentRound].set(sense);
+		    // Wait for the tournament winner (root).
+		    while (flagOut != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		case ROOT:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    if (results.length < length) {
+			results = new float[length];
+		    }
+		    reductor.operator(values, parties[roundObj.partnerId].values, results, length);
+		    // If there is a barrier action, execute it.
+		    if (action != null) {
+			runAction();
+		    }
+		    flagOut = sense;
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		}
+		// Exit for loop.
+		break;
+	    }
+	    System.arraycopy(results, 0, out, 0, length);
+	}
     }
 }
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of a tree barrier algorithm including a float broadcast from an arbitrary root
+ * party. The parties form a binary tree rooted at the root party of the current barrier episode
+ * (numbering the parties relative to the root, party <i>i</i> has the children 2<i>i</i>+1 and
+ * 2<i>i</i>+2). The arrivals are gathered up the tree like in the static tree barrier, and the
+ * value of the root is then pushed down the tree, so that each party only reads the value of its
+ * parent instead of all parties reading one shared field.
+ * <p>
+ * If there is a barrier action, it is executed by the root party after all parties have arrived.
+ * The action may call {@link #publish(float)} to broadcast a value computed by the action instead
+ * of the value of the root. Since the root may change between barrier episodes, the flags of the
+ * parties carry episode numbers instead of sense bits. After a eureka, the <code>broadcast</code>
+ * methods return the value of the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatTreeBroadcast extends AbstractBarrier {
+    /**
+     * The barrier data associated to each party.
+     */
+    private final TreeBroadcastParty[] parties;
+
+    /**
+     * The value published by the barrier action.
+     */
+    private float publishedValue;
+
+    /**
+     * Whether the barrier action published a value in the current barrier episode.
+     */
+    private boolean isPublished;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatTreeBroadcast(int numParties, Runnable barrierAction) {
+	super(numParties, barrierAction, null);
+	parties = new TreeBroadcastParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new TreeBroadcastParty(i);
+	}
+	isPublished = false;
+    }
+
+    /**
+     * Constructor (if no action is used).
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatTreeBroadcast(int numParties) {
+	this(numParties, null);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, without broadcasting a value.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	broadcast(threadId, 0, (float) 0);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout and
+     * without broadcasting a value.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	broadcast(threadId, 0, (float) 0, timeout, unit);
+    }
+
+    /**
+     * Called by a party that reaches the barrier. All parties have to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party whose value is broadcast
+     * @param value
+     *            the value to broadcast (only used by the root)
+     * @return the value of the root, or the value published by the barrier action
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public float broadcast(int threadId, int rootId, float value) {
+	checkRoot(rootId);
+	try {
+	    return parties[threadId].await(rootId, value, null, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout. All
+     * parties have to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party whose value is broadcast
+     * @param value
+     *            the value to broadcast (only used by the root)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the value of the root, or the value published by the barrier action
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float broadcast(int threadId, int rootId, float value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	try {
+	    return parties[threadId].await(rootId, value, null, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, broadcasting an array. All parties have to
+     * specify the same root and arrays of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party whose array is broadcast
+     * @param values
+     *            the array to broadcast (root) or to store the values of the root in (other
+     *            parties)
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public void broadcast(int threadId, int rootId, float[] values) {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, (float) 0, values, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, broadcasting an array and waiting at most for
+     * the given timeout. All parties have to specify the same root and arrays of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party whose array is broadcast
+     * @param values
+     *            the array to broadcast (root) or to store the values of the root in (other
+     *            parties)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void broadcast(int threadId, int rootId, float[] values, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, (float) 0, values, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Publishes a value to be broadcast instead of the value of the root. May only be called by
+     * the barrier action, and only affects scalar broadcasts.
+     * 
+     * @param value
+     *            the value to broadcast
+     */
+    public void publish(float value) {
+	publishedValue = value;
+	isPublished = true;
+    }
+
+    /**
+     * Checks the validity of a root ID.
+     * 
+     * @param rootId
+     *            the root ID to check
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    private void checkRoot(int rootId) {
+	if (rootId < 0 || rootId >= numParties) {
+	    throw new IllegalArgumentException("Invalid root " + rootId + "!");
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class TreeBroadcastParty {
+	/**
+	 * Unique id of this party [0 .. numParties-1].
+	 */
+	private final int id;
+
+	/**
+	 * The number of the current barrier episode.
+	 */
+	private long episode;
+
+	/**
+	 * Arrival flags set by the children of this party, holding the number of the barrier
+	 * episode they arrived at. Key: index of the child (0 or 1).
+	 */
+	private final AtomicLong[] childFlags;
+
+	/**
+	 * Release flag set by the parent of this party, holding the number of the barrier episode
+	 * the value of the parent is available for.
+	 */
+	private final AtomicLong downFlag;
+
+	/**
+	 * The broadcast value, read by the children of this party.
+	 */
+	private float value;
+
+	/**
+	 * The broadcast array, read by the children of this party, grown on demand.
+	 */
+	private float[] values;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private TreeBroadcastParty(int id) {
+	    this.id = id;
+	    episode = 0L;
+	    childFlags = new AtomicLong[] { new AtomicLong(0L), new AtomicLong(0L) };
+	    downFlag = new AtomicLong(0L);
+	    values = new float[0];
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param rootId
+	 *            the ID of the root party
+	 * @param inValue
+	 *            the value to broadcast (only used by the root)
+	 * @param inOut
+	 *            the array to broadcast (root) or to store the values of the root in (other
+	 *            parties), or <code>null</code> if a single value is broadcast
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the broadcast value
+	 */
+	private float await(int rootId, float inValue, float[] inOut, long deadline) {
+	    enter(id);
+	    final long localEpisode = ++episode;
+	    // Position of this party in the tree rooted at the root party.
+	    final int position = (id - rootId + numParties) % numParties;
+	    final int leftChild = 2 * position + 1;
+	    final int rightChild = 2 * position + 2;
+	    // Gather the arrivals of the subtree.
+	    for (int child = 0; child < 2 && leftChild + child < numParties; child++) {
+		while (childFlags[child].get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    if (position != 0) {
+		final TreeBroadcastParty parent = parties[((position - 1) / 2 + rootId)
+			% numParties];
+		parent.childFlags[(position - 1) % 2].set(localEpisode);
+		while (downFlag.get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		if (inOut == null) {
+		    value = parent.value;
+		} else {
+		    final int length = inOut.length;
+		    System.arraycopy(parent.values, 0, inOut, 0, length);
+		    if (leftChild < numParties) {
+			if (values.length < length) {
+			    values = new float[length];
+			}
+			System.arraycopy(inOut, 0, values, 0, length);
+		    }
+		}
+	    } else {
+		if (inOut == null) {
+		    value = inValue;
+		} else {
+		    if (values.length < inOut.length) {
+			values = new float[inOut.length];
+		    }
+		    System.arraycopy(inOut, 0, values, 0, inOut.length);
+		}
+		// If there is a barrier action, execute it.
+		if (action != null) {
+		    runAction();
+		    if (isPublished) {
+			isPublished = false;
+			if (inOut == null) {
+			    value = publishedValue;
+			}
+		    }
+		}
+	    }
+	    // Push the value down the tree.
+	    if (leftChild < numParties) {
+		parties[(leftChild + rootId) % numParties].downFlag.set(localEpisode);
+	    }
+	    if (rightChild < numParties) {
+		parties[(rightChild + rootId) % numParties].downFlag.set(localEpisode);
+	    }
+	    return value;
+	}
+    }
+}
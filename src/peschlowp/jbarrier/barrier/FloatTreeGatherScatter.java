@@ -0,0 +1,587 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of a tree barrier algorithm including a float gather to and a float scatter
+ * from an arbitrary root party. With a gather, each party contributes a value (or a block of
+ * values of fixed length) and the root receives the contributions of all parties, ordered by
+ * party ID. With a scatter, the root provides a value (or a block) for each party, ordered by
+ * party ID, and each party receives its own one.
+ * <p>
+ * The parties form a binomial tree rooted at the root party of the current barrier episode
+ * (numbering the parties relative to the root, party <i>i</i> has the children
+ * <i>i</i>+2<sup><i>k</i></sup> for all 2<sup><i>k</i></sup> less than the lowest set bit of
+ * <i>i</i>). Thus, the subtree of each party covers a contiguous range of parties, whose blocks
+ * are kept in an internal buffer of the party. With a gather, the blocks are collected up the
+ * tree, so that the root only reads the buffers of log(numParties) children instead of the
+ * blocks of all parties. With a scatter, each party copies the blocks of its subtree from the
+ * buffer of its parent. As the parent does not wait for this copy, and the children of a party
+ * change with the root, each party alternates between two buffers in successive barrier
+ * episodes. The buffers are only reallocated when the block length increases.
+ * <p>
+ * If there is a barrier action, it is executed by the root party after all parties have arrived.
+ * With a gather, the action may already inspect the gathered values, and with a scatter, it may
+ * still fill in the values to scatter. Since the root may change between barrier episodes, the
+ * flags of the parties carry episode numbers instead of sense bits. After a eureka (see
+ * {@link AbstractBarrier}), the methods return without transferring any values (a scalar scatter
+ * returns zero).
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class FloatTreeGatherScatter extends AbstractBarrier {
+    /**
+     * Empty array used if no values are transferred.
+     */
+    private static final float[] EMPTY = new float[0];
+
+    /**
+     * The number of rounds of the binomial tree, i.e., the maximum number of children of a party.
+     */
+    private final int numRounds;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private final TreeGatherScatterParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatTreeGatherScatter(int numParties, Runnable barrierAction) {
+	super(numParties, barrierAction, null);
+	numRounds = 32 - Integer.numberOfLeadingZeros(numParties - 1);
+	parties = new TreeGatherScatterParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new TreeGatherScatterParty(i);
+	}
+    }
+
+    /**
+     * Constructor (if no action is used).
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public FloatTreeGatherScatter(int numParties) {
+	this(numParties, null);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, without transferring any values.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	try {
+	    parties[threadId].await(0, EMPTY, EMPTY, 0, true, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout and
+     * without transferring any values.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(0, EMPTY, EMPTY, 0, true, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, gathering a value at the root. All parties have
+     * to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party receiving the values
+     * @param value
+     *            the value contributed by this party
+     * @param out
+     *            the array to store the values of all parties in, ordered by party ID (only used by
+     *            the root, may be <code>null</code> for the other parties)
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public void gather(int threadId, int rootId, float value, float[] out) {
+	checkRoot(rootId);
+	final TreeGatherScatterParty party = parties[threadId];
+	party.single[0] = value;
+	try {
+	    party.await(rootId, party.single, out, 1, true, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, gathering a value at the root and waiting at
+     * most for the given timeout. All parties have to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party receiving the values
+     * @param value
+     *            the value contributed by this party
+     * @param out
+     *            the array to store the values of all parties in, ordered by party ID (only used by
+     *            the root, may be <code>null</code> for the other parties)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void gather(int threadId, int rootId, float value, float[] out, long timeout,
+	    TimeUnit unit) throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	final TreeGatherScatterParty party = parties[threadId];
+	party.single[0] = value;
+	try {
+	    party.await(rootId, party.single, out, 1, true, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, gathering a block of values at the root. All
+     * parties have to specify the same root and blocks of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party receiving the blocks
+     * @param in
+     *            the block contributed by this party
+     * @param out
+     *            the array to store the blocks of all parties in, ordered by party ID, of length
+     *            at least <code>numParties * in.length</code> (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public void gather(int threadId, int rootId, float[] in, float[] out) {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, in, out, in.length, true, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, gathering a block of values at the root and
+     * waiting at most for the given timeout. All parties have to specify the same root and blocks
+     * of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party receiving the blocks
+     * @param in
+     *            the block contributed by this party
+     * @param out
+     *            the array to store the blocks of all parties in, ordered by party ID, of length
+     *            at least <code>numParties * in.length</code> (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void gather(int threadId, int rootId, float[] in, float[] out, long timeout,
+	    TimeUnit unit) throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, in, out, in.length, true, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, scattering values from the root. All parties
+     * have to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party providing the values
+     * @param in
+     *            the values for all parties, ordered by party ID (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @return the value for this party
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public float scatter(int threadId, int rootId, float[] in) {
+	checkRoot(rootId);
+	final TreeGatherScatterParty party = parties[threadId];
+	try {
+	    party.await(rootId, in, party.single, 1, false, NO_DEADLINE);
+	    return party.single[0];
+	} catch (EurekaSignal e) {
+	    return (float) 0;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, scattering values from the root and waiting at
+     * most for the given timeout. All parties have to specify the same root.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party providing the values
+     * @param in
+     *            the values for all parties, ordered by party ID (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the value for this party
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public float scatter(int threadId, int rootId, float[] in, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	final TreeGatherScatterParty party = parties[threadId];
+	try {
+	    party.await(rootId, in, party.single, 1, false, deadline(timeout, unit));
+	    return party.single[0];
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return (float) 0;
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, scattering blocks of values from the root. All
+     * parties have to specify the same root and blocks of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party providing the blocks
+     * @param in
+     *            the blocks for all parties, ordered by party ID, of length at least
+     *            <code>numParties * out.length</code> (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @param out
+     *            the array to store the block for this party in
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    public void scatter(int threadId, int rootId, float[] in, float[] out) {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, in, out, out.length, false, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, scattering blocks of values from the root and
+     * waiting at most for the given timeout. All parties have to specify the same root and blocks
+     * of the same length.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param rootId
+     *            the ID of the party providing the blocks
+     * @param in
+     *            the blocks for all parties, ordered by party ID, of length at least
+     *            <code>numParties * out.length</code> (only used by the root, may be
+     *            <code>null</code> for the other parties)
+     * @param out
+     *            the array to store the block for this party in
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public void scatter(int threadId, int rootId, float[] in, float[] out, long timeout,
+	    TimeUnit unit) throws InterruptedException, BrokenBarrierException, TimeoutException {
+	checkRoot(rootId);
+	try {
+	    parties[threadId].await(rootId, in, out, out.length, false, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Checks the validity of a root ID.
+     * 
+     * @param rootId
+     *            the root ID to check
+     * @throws IllegalArgumentException
+     *             if <code>rootId</code> is not a valid party ID
+     */
+    private void checkRoot(int rootId) {
+	if (rootId < 0 || rootId >= numParties) {
+	    throw new IllegalArgumentException("Invalid root " + rootId + "!");
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class TreeGatherScatterParty {
+	/**
+	 * Unique id of this party [0 .. numParties-1].
+	 */
+	private final int id;
+
+	/**
+	 * The number of the current barrier episode.
+	 */
+	private long episode;
+
+	/**
+	 * Arrival flags set by the children of this party, holding the number of the barrier
+	 * episode they arrived at. Key: <i>k</i> for the child at distance 2<sup><i>k</i></sup>.
+	 */
+	private final AtomicLong[] childFlags;
+
+	/**
+	 * Release flag set by the parent of this party, holding the number of the barrier episode
+	 * the buffer of the parent is available for.
+	 */
+	private final AtomicLong downFlag;
+
+	/**
+	 * The blocks of the subtree of this party, ordered relative to the root, grown on demand.
+	 * Key: parity of the barrier episode. During a scatter, the children of this party may
+	 * still copy from the buffer after this party has left the barrier. This party may only
+	 * leave the next barrier episode after all parties have arrived at it, i.e., after all
+	 * copies have been completed, so the buffer may be reused in the episode after the next.
+	 */
+	private final float[][] buffers;
+
+	/**
+	 * Block of length one used for scalar values.
+	 */
+	private final float[] single;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	private TreeGatherScatterParty(int id) {
+	    this.id = id;
+	    episode = 0L;
+	    childFlags = new AtomicLong[numRounds];
+	    for (int k = 0; k < numRounds; k++) {
+		childFlags[k] = new AtomicLong(0L);
+	    }
+	    downFlag = new AtomicLong(0L);
+	    buffers = new float[2][0];
+	    single = new float[1];
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param rootId
+	 *            the ID of the root party
+	 * @param in
+	 *            the block contributed by this party (gather), or the blocks for all parties
+	 *            (scatter, only used by the root)
+	 * @param out
+	 *            the array to store the blocks of all parties in (gather, only used by the
+	 *            root), or the block for this party (scatter)
+	 * @param length
+	 *            the block length
+	 * @param isGather
+	 *            <code>true</code> for a gather, <code>false</code> for a scatter
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	private void await(int rootId, float[] in, float[] out, int length, boolean isGather,
+		long deadline) {
+	    enter(id);
+	    final long localEpisode = ++episode;
+	    final int parity = (int) (localEpisode & 1L);
+	    // Position of this party in the tree rooted at the root party.
+	    final int position = (id - rootId + numParties) % numParties;
+	    final int lowestBit = position & -position;
+	    // The subtree of this party covers the positions [position, position + size).
+	    final int size = position == 0 ? numParties : Math.min(lowestBit, numParties
+		    - position);
+	    // Gather the arrivals of the subtree.
+	    for (int distance = 1; distance < size; distance <<= 1) {
+		final AtomicLong childFlag = childFlags[Integer.numberOfTrailingZeros(distance)];
+		while (childFlag.get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    if (isGather) {
+		final float[] buffer = getBuffer(parity, size * length);
+		System.arraycopy(in, 0, buffer, 0, length);
+		for (int distance = 1; distance < size; distance <<= 1) {
+		    final TreeGatherScatterParty child = parties[(position + distance + rootId)
+			    % numParties];
+		    System.arraycopy(child.buffers[parity], 0, buffer, distance * length,
+			    Math.min(distance, size - distance) * length);
+		}
+	    }
+	    if (position != 0) {
+		final TreeGatherScatterParty parent = parties[(position - lowestBit + rootId)
+			% numParties];
+		parent.childFlags[Integer.numberOfTrailingZeros(lowestBit)].set(localEpisode);
+		while (downFlag.get() != localEpisode) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		if (!isGather) {
+		    final float[] buffer = getBuffer(parity, size * length);
+		    System.arraycopy(parent.buffers[parity], lowestBit * length, buffer, 0,
+			    size * length);
+		    System.arraycopy(buffer, 0, out, 0, length);
+		}
+	    } else {
+		// The positions relative to the root start with the party ID of the root.
+		final int numWrapped = rootId * length;
+		final int numUnwrapped = size * length - numWrapped;
+		if (isGather) {
+		    final float[] buffer = buffers[parity];
+		    System.arraycopy(buffer, 0, out, numWrapped, numUnwrapped);
+		    System.arraycopy(buffer, numUnwrapped, out, 0, numWrapped);
+		}
+		// If there is a barrier action, execute it.
+		if (action != null) {
+		    runAction();
+		}
+		if (!isGather) {
+		    final float[] buffer = getBuffer(parity, size * length);
+		    System.arraycopy(in, numWrapped, buffer, 0, numUnwrapped);
+		    System.arraycopy(in, 0, buffer, numUnwrapped, numWrapped);
+		    System.arraycopy(buffer, 0, out, 0, length);
+		}
+	    }
+	    // Release the subtree, starting with the largest child.
+	    for (int distance = Integer.highestOneBit(size - 1); distance >= 1; distance >>= 1) {
+		parties[(position + distance + rootId) % numParties].downFlag.set(localEpisode);
+	    }
+	}
+
+	/**
+	 * Provides the buffer for a barrier episode, growing it if necessary.
+	 * 
+	 * @param parity
+	 *            the parity of the barrier episode
+	 * @param length
+	 *            the required length of the buffer
+	 * @return the buffer
+	 */
+	private float[] getBuffer(int parity, int length) {
+	    if (buffers[parity].length < length) {
+		buffers[parity] = new float[length];
+	    }
+	    return buffers[parity];
+	}
+    }
+}
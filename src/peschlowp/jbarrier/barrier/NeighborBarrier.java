@@ -0,0 +1,260 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of a point-to-point barrier where each party only waits for its neighbors. The
+ * neighbor graph is specified as an array of neighbor IDs per party and has to be symmetric, i.e.,
+ * if party <i>j</i> is a neighbor of party <i>i</i>, then <i>i</i> has to be a neighbor of
+ * <i>j</i>. A party passes the barrier as soon as all its neighbors have arrived, so there is no
+ * global synchronization. This is useful for stencil codes and spatially partitioned simulations,
+ * where in each phase a party only exchanges data with its left/right neighbors or with the
+ * parties owning its halo.
+ * <p>
+ * Like with the butterfly barrier, each party has a separate incoming flag for each edge of the
+ * neighbor graph, and two sets of flags are used for alternating barrier episodes. Since there is
+ * no point in time when all parties have arrived, neither a barrier action nor a generic reductor
+ * is supported.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class NeighborBarrier extends AbstractBarrier {
+    /**
+     * The barrier information associated to each party.
+     */
+    protected NeighborBarrierParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param neighbors
+     *            the neighbor IDs of each party (first key: ID of the party, second key: index of
+     *            the neighbor)
+     * @throws IllegalArgumentException
+     *             if there are less than two parties or the neighbor graph is invalid (i.e., not
+     *             symmetric, containing self-loops, duplicate edges, or invalid IDs)
+     */
+    public NeighborBarrier(int[][] neighbors) {
+	super(neighbors.length, null, null);
+	checkNeighbors(neighbors);
+	parties = new NeighborBarrierParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new NeighborBarrierParty(i, neighbors[i].length);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier(neighbors);
+	}
+    }
+
+    /**
+     * Checks the validity of the neighbor graph.
+     * 
+     * @param neighbors
+     *            the neighbor IDs of each party
+     * @throws IllegalArgumentException
+     *             if the neighbor graph is invalid
+     */
+    private void checkNeighbors(int[][] neighbors) {
+	for (int i = 0; i < numParties; i++) {
+	    for (int k = 0; k < neighbors[i].length; k++) {
+		final int j = neighbors[i][k];
+		if (j < 0 || j >= numParties || j == i) {
+		    throw new IllegalArgumentException("Invalid neighbor " + j + " of party " + i
+			    + "!");
+		}
+		for (int l = 0; l < k; l++) {
+		    if (neighbors[i][l] == j) {
+			throw new IllegalArgumentException("Duplicate neighbor " + j + " of party "
+				+ i + "!");
+		    }
+		}
+		if (indexOf(neighbors[j], i) < 0) {
+		    throw new IllegalArgumentException("Neighbor graph is not symmetric: " + j
+			    + " is a neighbor of " + i + " but not vice versa!");
+		}
+	    }
+	}
+    }
+
+    /**
+     * Finds the index of a value in an array.
+     * 
+     * @param array
+     *            the array to search
+     * @param value
+     *            the value to search for
+     * @return the index of <code>value</code> in <code>array</code>, or -1 if it is not contained
+     */
+    private static int indexOf(int[] array, int value) {
+	for (int i = 0; i < array.length; i++) {
+	    if (array[i] == value) {
+		return i;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Called by a party that reaches the barrier. Returns as soon as all neighbors of the party
+     * have reached the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	try {
+	    parties[threadId].await(NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    protected class NeighborBarrierParty {
+	/**
+	 * Unique id of this party [0 .. numParties-1].
+	 */
+	protected final int id;
+
+	/**
+	 * Array of incoming flags for this party, one for each neighbor. First key: parity (0 or
+	 * 1). Second key: index of the neighbor.
+	 */
+	protected final AtomicBoolean[][] flagsIn;
+
+	/**
+	 * Parity bit for alternating barrier episodes.
+	 */
+	protected int parity;
+
+	/**
+	 * Sense flag that switches between <code>true</code> and <code>false</code>.
+	 */
+	protected boolean sense;
+
+	/**
+	 * Pre-computed array of references to the neighbors of this party.
+	 */
+	protected final NeighborBarrierParty[] partnersOut;
+
+	/**
+	 * Pre-computed array of the indices of this party in the neighbor lists of its neighbors,
+	 * i.e., of the incoming flags to set at the neighbors.
+	 */
+	protected final int[] outIndices;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 * @param numNeighbors
+	 *            the number of neighbors of this party
+	 */
+	protected NeighborBarrierParty(int id, int numNeighbors) {
+	    this.id = id;
+	    parity = 0;
+	    sense = false;
+	    flagsIn = new AtomicBoolean[2][numNeighbors];
+	    for (int k = 0; k < numNeighbors; k++) {
+		flagsIn[0][k] = new AtomicBoolean(!sense);
+		flagsIn[1][k] = new AtomicBoolean(!sense);
+	    }
+	    partnersOut = new NeighborBarrierParty[numNeighbors];
+	    outIndices = new int[numNeighbors];
+	}
+
+	/**
+	 * Sets up this party for the barrier algorithm.
+	 * 
+	 * @param neighbors
+	 *            the neighbor IDs of each party
+	 */
+	protected void setupBarrier(int[][] neighbors) {
+	    for (int k = 0; k < partnersOut.length; k++) {
+		final int neighbor = neighbors[id][k];
+		partnersOut[k] = parties[neighbor];
+		outIndices[k] = indexOf(neighbors[neighbor], id);
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	protected void await(long deadline) {
+	    enter(id);
+	    final int numNeighbors = partnersOut.length;
+	    for (int k = 0; k < numNeighbors; k++) {
+		partnersOut[k].flagsIn[parity][outIndices[k]].set(sense);
+	    }
+	    for (int k = 0; k < numNeighbors; k++) {
+		while (flagsIn[parity][k].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	}
+    }
+}
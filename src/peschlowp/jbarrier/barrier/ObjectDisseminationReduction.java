@@ -0,0 +1,297 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import peschlowp.jbarrier.util.Utils;
+
+/**
+ * Implementation of a dissemination barrier algorithm including a reduction on objects. In each
+ * round, a party combines the intermediate result of its incoming partner into its own one, so
+ * every party obtains the result without waiting for a root party. The values combined by a party
+ * are those of a cyclic range of party IDs ending at its own ID. The part of this range that wraps
+ * around to the highest IDs is kept separately and only appended at the end, so that every party
+ * combines the values in the order of the party IDs and obtains the same result even if the
+ * operator is not commutative. Since intermediate results are read by other parties, they are
+ * never modified in place (see {@link ObjectReductionOperator#combine(Object, Object)}).
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ * 
+ * @param <T>
+ *            the type of the values subject to the reduction
+ */
+public class ObjectDisseminationReduction<T> extends DisseminationBarrier implements
+	ObjectReduction<T> {
+    /**
+     * The reduction operator used.
+     */
+    private final ObjectReductionOperator<T> reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private DisseminationReductionParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ObjectDisseminationReduction(int numParties, Runnable barrierAction,
+	    ObjectReductionOperator<T> reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ObjectDisseminationReduction(int numParties, ObjectReductionOperator<T> reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduction subclass.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setUpParties() {
+	parties = (DisseminationReductionParty[])
+		new ObjectDisseminationReduction<?>.DisseminationReductionParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new DisseminationReductionParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    @Override
+    public T await(int threadId, T value) {
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public T await(int threadId, T value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class DisseminationReductionParty extends DisseminationBarrierParty {
+	/**
+	 * Pre-computed array of references to my outgoing partners (whose flag I set) in every
+	 * round.
+	 */
+	private DisseminationReductionParty[] partnersOut;
+
+	/**
+	 * Pre-computed array of references to my incoming partners (those that set my flag) in
+	 * every round.
+	 */
+	private DisseminationReductionParty[] partnersIn;
+
+	/**
+	 * Intermediate values used during the reduction, combining the values of the parties from
+	 * the start of the current range up to this party, or from ID 0 if the range wraps around.
+	 * First key: parity (0 or 1). Second key: round number.
+	 */
+	private final Object[][] values;
+
+	/**
+	 * Intermediate values used during the reduction, combining the values of the parties in the
+	 * part of the current range that wraps around to the highest IDs. Only valid if the range
+	 * wraps around in the respective round. First key: parity (0 or 1). Second key: round
+	 * number.
+	 */
+	private final Object[][] tails;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier.
+	 */
+	private DisseminationReductionParty(int id) {
+	    super(id);
+	    values = new Object[2][numRounds + 1];
+	    tails = new Object[2][numRounds + 1];
+	}
+
+	/**
+	 * Sets up the partners array for this reduction subclass.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void setUpPartyData() {
+	    partnersOut = (DisseminationReductionParty[])
+		    new ObjectDisseminationReduction<?>.DisseminationReductionParty[numRounds];
+	    partnersIn = (DisseminationReductionParty[])
+		    new ObjectDisseminationReduction<?>.DisseminationReductionParty[numRounds];
+	}
+
+	/**
+	 * Fills the partners arrays with the outgoing and incoming partners of this party in each
+	 * round, i.e., the parties whose IDs are larger and smaller, respectively, by two to the
+	 * power of the round number (modulo the number of parties).
+	 */
+	@Override
+	protected void setupBarrier() {
+	    for (int round = 0; round < numRounds; round++) {
+		final int outPartner = (id + Utils.powerOfTwo(round)) % numParties;
+		partnersOut[round] = parties[outPartner];
+
+		int inPartner = (id - Utils.powerOfTwo(round)) % numParties;
+		if (inPartner < 0) {
+		    inPartner += numParties;
+		}
+		partnersIn[round] = parties[inPartner];
+	    }
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inValue
+	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the result of the reduction
+	 */
+	@SuppressWarnings("unchecked")
+	private T await(T inValue, long deadline) {
+	    enter(id);
+	    values[parity][0] = inValue;
+	    for (int round = 0; round < numRounds; round++) {
+		partnersOut[round].flagsIn[parity][round].set(sense);
+		while (flagsIn[parity][round].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		final DisseminationReductionParty partner = partnersIn[round];
+		final T partnerValue = (T) partner.values[parity][round];
+		if (partner.id < id) {
+		    // The range of the partner directly precedes the range of this party.
+		    values[parity][round + 1] = reductor.operator(partnerValue,
+			    (T) values[parity][round]);
+		    tails[parity][round + 1] = partner.tails[parity][round];
+		} else if (id + 1 < Utils.powerOfTwo(round)) {
+		    // The range of the partner precedes the wrapped part of this range.
+		    values[parity][round + 1] = values[parity][round];
+		    tails[parity][round + 1] = reductor.operator(partnerValue,
+			    (T) tails[parity][round]);
+		} else {
+		    // The range of the partner becomes the wrapped part of this range.
+		    values[parity][round + 1] = values[parity][round];
+		    tails[parity][round + 1] = partnerValue;
+		}
+	    }
+	    final T result;
+	    if (id + 1 < numParties) {
+		result = reductor.operator((T) values[parity][numRounds],
+			(T) tails[parity][numRounds]);
+	    } else {
+		result = (T) values[parity][numRounds];
+	    }
+	    if (parity == 1) {
+		sense = !sense;
+	    }
+	    parity = 1 - parity;
+	    // If there is a barrier action, let thread 0 execute it.
+	    if (action != null) {
+		outSense = !outSense;
+		if (id == 0) {
+		    runAction();
+		    flagOut = outSense;
+		} else {
+		    while (flagOut != outSense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		}
+	    }
+	    return result;
+	}
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Interface for barriers supporting reductions on objects of arbitrary type, using an
+ * {@link ObjectReductionOperator}. The intermediate results are stored in slots managed by the
+ * barrier, following the same round structure as the primitive reductions (e.g.,
+ * {@link FloatReduction}), so there is no need to implement a {@link GenericReductor}. After a
+ * eureka (see {@link AbstractBarrier}), the <code>await</code> methods return immediately,
+ * providing the value contributed by the calling party instead of the result of the reduction.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ * 
+ * @param <T>
+ *            the type of the values subject to the reduction
+ */
+public interface ObjectReduction<T> {
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    public T await(int threadId, T value);
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout. If the
+     * timeout elapses or the party is interrupted, the barrier is broken.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public T await(int threadId, T value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException;
+
+    /**
+     * Checks whether the barrier is broken.
+     * 
+     * @return <code>true</code> if the barrier is broken, otherwise <code>false</code>
+     */
+    public boolean isBroken();
+
+    /**
+     * Raises a eureka, so that the current or next <code>await</code> call of every party returns
+     * immediately. Only the first eureka takes effect.
+     * 
+     * @param threadId
+     *            the ID of the party raising the eureka
+     * @param payload
+     *            the payload of the eureka, e.g., an index identifying the solution found
+     */
+    public void eureka(int threadId, long payload);
+
+    /**
+     * Checks whether a eureka has been raised.
+     * 
+     * @return <code>true</code> if a eureka has been raised, otherwise <code>false</code>
+     */
+    public boolean isEureka();
+
+    /**
+     * Provides the payload of the eureka. Only meaningful if {@link #isEureka()} returns
+     * <code>true</code>.
+     * 
+     * @return the payload of the eureka
+     */
+    public long getEurekaPayload();
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+/**
+ * Abstract base class for reduction operators on objects, used by the object reduction barriers
+ * (see {@link ObjectReduction}). The operator has to be associative. Unless the operator is also
+ * commutative, the result may depend on the barrier algorithm used, but all parties obtain the
+ * same result.
+ * <p>
+ * By default, the operands are never modified. For mutable accumulators (e.g., histograms or
+ * vectors), {@link #combine(Object, Object)} may be overridden to merge the second operand into
+ * the first one in place, which avoids creating a new object in each step of the reduction.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ * 
+ * @param <T>
+ *            the type of the operands
+ */
+public abstract class ObjectReductionOperator<T> {
+    /**
+     * Operator on two objects. Must not modify the operands, but may return one of them.
+     * 
+     * @param value1
+     *            the first operand
+     * @param value2
+     *            the second operand
+     * @return the result of the operator applied to the two operands
+     */
+    protected abstract T operator(T value1, T value2);
+
+    /**
+     * Combines an operand into an accumulator. The default implementation delegates to
+     * {@link #operator(Object, Object)}. Subclasses may override this method to update
+     * <code>accumulator</code> in place and return it. The barriers only call this method for
+     * an accumulator that is not read by any other party at the same time, i.e., the value
+     * contributed by the calling party or an intermediate result owned by it. Therefore, the
+     * value contributed by a party may be modified and returned as the result of the reduction.
+     * Barriers where intermediate results are read by several parties (butterfly and
+     * dissemination) only use {@link #operator(Object, Object)}.
+     * 
+     * @param accumulator
+     *            the accumulator
+     * @param value
+     *            the operand to combine into the accumulator, must not be modified
+     * @return the combined value, either a new object or <code>accumulator</code>
+     */
+    protected T combine(T accumulator, T value) {
+	return operator(accumulator, value);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of a static tree barrier algorithm including a reduction on objects. Each inner
+ * node of the tree combines the intermediate results of its children into its own one, using the
+ * value it contributed as accumulator.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ * 
+ * @param <T>
+ *            the type of the values subject to the reduction
+ */
+public class ObjectStaticTreeReduction<T> extends StaticTreeBarrier implements ObjectReduction<T> {
+    /**
+     * The number of array slots between the values of two parties, to avoid false sharing.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * The reduction operator used.
+     */
+    private final ObjectReductionOperator<T> reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private StaticTreeReductionParty[] parties;
+
+    /**
+     * Stores the result of the reduction.
+     */
+    private T result;
+
+    /**
+     * The values contributed to the reduction by the parties (padded, see {@link #PADDING}).
+     * Index: party ID times {@link #PADDING}.
+     */
+    private Object[] values;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ObjectStaticTreeReduction(int numParties, Runnable barrierAction,
+	    ObjectReductionOperator<T> reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is not a power of two
+     */
+    public ObjectStaticTreeReduction(int numParties, ObjectReductionOperator<T> reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduction subclass.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setUpParties() {
+	values = new Object[numParties * PADDING];
+	parties = (StaticTreeReductionParty[])
+		new ObjectStaticTreeReduction<?>.StaticTreeReductionParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new StaticTreeReductionParty(i);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    @Override
+    public T await(int threadId, T value) {
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public T await(int threadId, T value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Returns the value most recently stored by the given party.
+     * 
+     * @param id
+     *            the ID of the party
+     * @return the value stored by the party
+     */
+    @SuppressWarnings("unchecked")
+    private T value(int id) {
+	return (T) values[id * PADDING];
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class StaticTreeReductionParty extends StaticTreeBarrierParty {
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this thread within the barrier.
+	 */
+	private StaticTreeReductionParty(int id) {
+	    super(id);
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inValue
+	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the result of the reduction
+	 */
+	private T await(T inValue, long deadline) {
+	    enter(id);
+	    T value = inValue;
+	    sense = !sense;
+	    if (id == 0) {
+		while (flags[1].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		value = reductor.combine(value, value(1));
+		if (numParties > 2) {
+		    while (flags[2].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    value = reductor.combine(value, value(2));
+		    if (numParties > 3) {
+			while (flags[numParties - 1].get() != sense) {
+			    // Busy-wait.
+			    checkWait(deadline);
+			}
+			value = reductor.combine(value, value(numParties - 1));
+		    }
+		}
+		result = value;
+		// If there is a barrier action, execute it.
+		if (action != null) {
+		    runAction();
+		}
+		flagOut = sense;
+	    } else if (id < THRESH) {
+		while (flags[LEFT_CHILD].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		value = reductor.combine(value, value(LEFT_CHILD));
+		while (flags[RIGHT_CHILD].get() != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+		value = reductor.combine(value, value(RIGHT_CHILD));
+		values[id * PADDING] = value;
+		flags[id].set(sense);
+		while (flagOut != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    } else {
+		values[id * PADDING] = value;
+		flags[id].set(sense);
+		while (flagOut != sense) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	    return result;
+	}
+    }
+}
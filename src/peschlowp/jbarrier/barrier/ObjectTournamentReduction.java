@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of a tournament barrier algorithm including a reduction on objects. In each
+ * round, the winner combines the intermediate result of the loser into its own one, using the
+ * value it contributed as accumulator.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ * 
+ * @param <T>
+ *            the type of the values subject to the reduction
+ */
+public class ObjectTournamentReduction<T> extends TournamentBarrier implements ObjectReduction<T> {
+    /**
+     * The number of array slots between the values of two parties, to avoid false sharing.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * The reduction operator used.
+     */
+    private final ObjectReductionOperator<T> reductor;
+
+    /**
+     * The barrier data associated to each party.
+     */
+    private TournamentReductionParty[] parties;
+
+    /**
+     * Stores the result of the reduction.
+     */
+    private T result;
+
+    /**
+     * The values contributed to the reduction by the parties (padded, see {@link #PADDING}).
+     * Index: party ID times {@link #PADDING}.
+     */
+    private Object[] values;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param barrierAction
+     *            the command to execute when the barrier is tripped, or <code>null</code> if there
+     *            is no action
+     * @param reductor
+     *            the reduction operator to use
+     */
+    public ObjectTournamentReduction(int numParties, Runnable barrierAction,
+	    ObjectReductionOperator<T> reductor) {
+	super(numParties, barrierAction);
+	this.reductor = reductor;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties that must reach the barrier before the barrier is tripped
+     * @param reductor
+     *            the reduction operator to use
+     */
+    public ObjectTournamentReduction(int numParties, ObjectReductionOperator<T> reductor) {
+	this(numParties, null, reductor);
+    }
+
+    /**
+     * Sets up the parties array required for this reduction subclass.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setUpParties() {
+	values = new Object[numParties * PADDING];
+	parties = (TournamentReductionParty[])
+		new ObjectTournamentReduction<?>.TournamentReductionParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new TournamentReductionParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @return the result of the reduction
+     */
+    @Override
+    public T await(int threadId, T value) {
+	try {
+	    return parties[threadId].await(value, NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the reduction
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the result of the reduction
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public T await(int threadId, T value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	try {
+	    return parties[threadId].await(value, deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    return value;
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Returns the value most recently stored by the given party.
+     * 
+     * @param id
+     *            the ID of the party
+     * @return the value stored by the party
+     */
+    @SuppressWarnings("unchecked")
+    private T value(int id) {
+	return (T) values[id * PADDING];
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    private class TournamentReductionParty extends TournamentBarrierParty {
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this thread within the barrier.
+	 */
+	private TournamentReductionParty(int id) {
+	    super(id);
+	}
+
+	/**
+	 * Called when this party reaches the barrier.
+	 * 
+	 * @param inValue
+	 *            the value contributed to the reduction by this thread
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 * @return the result of the reduction
+	 */
+	private T await(T inValue, long deadline) {
+	    enter(id);
+	    T value = inValue;
+	    sense = !sense;
+	    int currentRound = 0;
+	    for (;;) {
+		final Round roundObj = rounds[currentRound];
+		switch (roundObj.role) {
+		case WINNER:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    value = reductor.combine(value, value(roundObj.partnerId));
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case WILDCARD:
+		    ++currentRound;
+		    // Continue to next round.
+		    continue;
+		case LOSER:
+		    values[id * PADDING] = value;
+		    parties[roundObj.partnerId].flags[currentRound].set(sense);
+		    // Wait for the tournament winner (root).
+		    while (flagOut != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		case ROOT:
+		    while (flags[currentRound].get() != sense) {
+			// Busy-wait.
+			checkWait(deadline);
+		    }
+		    result = reductor.combine(value, value(roundObj.partnerId));
+		    // If there is a barrier action, execute it.
+		    if (action != null) {
+			runAction();
+		    }
+		    flagOut = sense;
+		    // Exit switch statement (and thus the for loop).
+		    break;
+		}
+		// Exit for loop.
+		break;
+	    }
+	    return result;
+	}
+    }
+}
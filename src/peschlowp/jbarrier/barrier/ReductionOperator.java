@@ -68,6 +68,349 @@ public abstract class ReductionOperator {
      */
     protected abstract double operator(double value1, double value2);
 
+    /**
+     * Operator on operands of type <code>byte</code>. The default implementation applies the
+     * <code>int</code> operator and narrows the result to <code>byte</code>.
+     * 
+     * @param value1
+     *            the first operand
+     * @param value2
+     *            the second operand
+     * @return the result of the operator applied to the two operands
+     */
+    protected byte operator(byte value1, byte value2) {
+	return (byte) operator((int) value1, (int) value2);
+    }
+
+    /**
+     * Operator on operands of type <code>short</code>. The default implementation applies the
+     * <code>int</code> operator and narrows the result to <code>short</code>.
+     * 
+     * @param value1
+     *            the first operand
+     * @param value2
+     *            the second operand
+     * @return the result of the operator applied to the two operands
+     */
+    protected short operator(short value1, short value2) {
+	return (short) operator((int) value1, (int) value2);
+    }
+
+    /**
+     * Operator on operands of type <code>char</code>. The default implementation applies the
+     * <code>int</code> operator and narrows the result to <code>char</code>.
+     * 
+     * @param value1
+     *            the first operand
+     * @param value2
+     *            the second operand
+     * @return the result of the operator applied to the two operands
+     */
+    protected char operator(char value1, char value2) {
+	return (char) operator((int) value1, (int) value2);
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>int</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(int[] values1, int[] values2, int[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>int</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(int[] values1, int[] values2, int offset, int[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>long</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(long[] values1, long[] values2, long[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>long</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(long[] values1, long[] values2, int offset, long[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>float</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(float[] values1, float[] values2, float[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>float</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(float[] values1, float[] values2, int offset, float[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>double</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(double[] values1, double[] values2, double[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>double</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(double[] values1, double[] values2, int offset, double[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>byte</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(byte[] values1, byte[] values2, byte[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>byte</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(byte[] values1, byte[] values2, int offset, byte[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>short</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(short[] values1, short[] values2, short[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>short</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(short[] values1, short[] values2, int offset, short[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
+    /**
+     * Element-wise operator on arrays of type <code>char</code>, starting at index 0. The result
+     * array may be identical to one of the operand arrays.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param result
+     *            the array to store the results in
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(char[] values1, char[] values2, char[] result, int length) {
+	operator(values1, values2, 0, result, 0, length);
+    }
+
+    /**
+     * Element-wise operator on ranges of arrays of type <code>char</code>, storing the result for
+     * the operands at index <code>offset + i</code> at index <code>resultOffset + i</code>. The
+     * result range may be identical to one of the operand ranges. Subclasses may override this
+     * method with a specialized loop.
+     * 
+     * @param values1
+     *            the first operands
+     * @param values2
+     *            the second operands
+     * @param offset
+     *            the index of the first operands to process
+     * @param result
+     *            the array to store the results in
+     * @param resultOffset
+     *            the index to store the first result at
+     * @param length
+     *            the number of elements to process
+     */
+    protected void operator(char[] values1, char[] values2, int offset, char[] result,
+	    int resultOffset, int length) {
+	for (int i = 0; i < length; i++) {
+	    result[resultOffset + i] = operator(values1[offset + i], values2[offset + i]);
+	}
+    }
+
     /**
      * Minimum reduction operator.
      * 
@@ -132,6 +475,114 @@ public abstract class ReductionOperator {
 	protected double operator(double value1, double value2) {
 	    return value1 <= value2 ? value1 : value2;
 	}
+
+	/**
+	 * Element-wise minimum on ranges of arrays of type <code>int</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 <= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise minimum on ranges of arrays of type <code>long</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 <= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise minimum on ranges of arrays of type <code>float</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(float[] values1, float[] values2, int offset, float[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final float value1 = values1[offset + i];
+		final float value2 = values2[offset + i];
+		result[resultOffset + i] = value1 <= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise minimum on ranges of arrays of type <code>double</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(double[] values1, double[] values2, int offset, double[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final double value1 = values1[offset + i];
+		final double value2 = values2[offset + i];
+		result[resultOffset + i] = value1 <= value2 ? value1 : value2;
+	    }
+	}
     }
 
     /**
@@ -198,6 +649,114 @@ public abstract class ReductionOperator {
 	protected double operator(double value1, double value2) {
 	    return value1 >= value2 ? value1 : value2;
 	}
+
+	/**
+	 * Element-wise maximum on ranges of arrays of type <code>int</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 >= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise maximum on ranges of arrays of type <code>long</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 >= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise maximum on ranges of arrays of type <code>float</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(float[] values1, float[] values2, int offset, float[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final float value1 = values1[offset + i];
+		final float value2 = values2[offset + i];
+		result[resultOffset + i] = value1 >= value2 ? value1 : value2;
+	    }
+	}
+
+	/**
+	 * Element-wise maximum on ranges of arrays of type <code>double</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(double[] values1, double[] values2, int offset, double[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final double value1 = values1[offset + i];
+		final double value2 = values2[offset + i];
+		result[resultOffset + i] = value1 >= value2 ? value1 : value2;
+	    }
+	}
     }
 
     /**
@@ -264,5 +823,1230 @@ public abstract class ReductionOperator {
 	protected double operator(double value1, double value2) {
 	    return value1 + value2;
 	}
+
+	/**
+	 * Element-wise sum on ranges of arrays of type <code>int</code>, as a plain loop that the
+	 * JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 + value2;
+	    }
+	}
+
+	/**
+	 * Element-wise sum on ranges of arrays of type <code>long</code>, as a plain loop that the
+	 * JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 + value2;
+	    }
+	}
+
+	/**
+	 * Element-wise sum on ranges of arrays of type <code>float</code>, as a plain loop that the
+	 * JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(float[] values1, float[] values2, int offset, float[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final float value1 = values1[offset + i];
+		final float value2 = values2[offset + i];
+		result[resultOffset + i] = value1 + value2;
+	    }
+	}
+
+	/**
+	 * Element-wise sum on ranges of arrays of type <code>double</code>, as a plain loop that
+	 * the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(double[] values1, double[] values2, int offset, double[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final double value1 = values1[offset + i];
+		final double value2 = values2[offset + i];
+		result[resultOffset + i] = value1 + value2;
+	    }
+	}
+    }
+
+    /**
+     * Bitwise AND reduction operator, e.g., to check whether a flag is set by all parties.
+     * Operands of type <code>float</code> and <code>double</code> are combined on their raw bit
+     * patterns.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class AndReduction extends ReductionOperator {
+	/**
+	 * Bitwise AND operator on operands of type <code>int</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise AND of the two operands
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return value1 & value2;
+	}
+
+	/**
+	 * Bitwise AND operator on operands of type <code>long</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise AND of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return value1 & value2;
+	}
+
+	/**
+	 * Bitwise AND operator on operands of type <code>float</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise AND of the raw bit patterns of the operands
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return Float.intBitsToFloat(Float.floatToRawIntBits(value1)
+		    & Float.floatToRawIntBits(value2));
+	}
+
+	/**
+	 * Bitwise AND operator on operands of type <code>double</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise AND of the raw bit patterns of the operands
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return Double.longBitsToDouble(Double.doubleToRawLongBits(value1)
+		    & Double.doubleToRawLongBits(value2));
+	}
+
+	/**
+	 * Element-wise bitwise AND on ranges of arrays of type <code>int</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 & value2;
+	    }
+	}
+
+	/**
+	 * Element-wise bitwise AND on ranges of arrays of type <code>long</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 & value2;
+	    }
+	}
+    }
+
+    /**
+     * Bitwise OR reduction operator, e.g., to check whether a flag is set by any party.
+     * Operands of type <code>float</code> and <code>double</code> are combined on their raw bit
+     * patterns.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class OrReduction extends ReductionOperator {
+	/**
+	 * Bitwise OR operator on operands of type <code>int</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise OR of the two operands
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return value1 | value2;
+	}
+
+	/**
+	 * Bitwise OR operator on operands of type <code>long</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise OR of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return value1 | value2;
+	}
+
+	/**
+	 * Bitwise OR operator on operands of type <code>float</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise OR of the raw bit patterns of the operands
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return Float.intBitsToFloat(Float.floatToRawIntBits(value1)
+		    | Float.floatToRawIntBits(value2));
+	}
+
+	/**
+	 * Bitwise OR operator on operands of type <code>double</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise OR of the raw bit patterns of the operands
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return Double.longBitsToDouble(Double.doubleToRawLongBits(value1)
+		    | Double.doubleToRawLongBits(value2));
+	}
+
+	/**
+	 * Element-wise bitwise OR on ranges of arrays of type <code>int</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 | value2;
+	    }
+	}
+
+	/**
+	 * Element-wise bitwise OR on ranges of arrays of type <code>long</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 | value2;
+	    }
+	}
+    }
+
+    /**
+     * Bitwise XOR reduction operator, e.g., to compute a parity or checksum. Operands of type
+     * <code>float</code> and <code>double</code> are combined on their raw bit patterns.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class XorReduction extends ReductionOperator {
+	/**
+	 * Bitwise XOR operator on operands of type <code>int</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise XOR of the two operands
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return value1 ^ value2;
+	}
+
+	/**
+	 * Bitwise XOR operator on operands of type <code>long</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise XOR of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return value1 ^ value2;
+	}
+
+	/**
+	 * Bitwise XOR operator on operands of type <code>float</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise XOR of the raw bit patterns of the operands
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return Float.intBitsToFloat(Float.floatToRawIntBits(value1)
+		    ^ Float.floatToRawIntBits(value2));
+	}
+
+	/**
+	 * Bitwise XOR operator on operands of type <code>double</code>, applied to their raw bit
+	 * patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the bitwise XOR of the raw bit patterns of the operands
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return Double.longBitsToDouble(Double.doubleToRawLongBits(value1)
+		    ^ Double.doubleToRawLongBits(value2));
+	}
+
+	/**
+	 * Element-wise bitwise XOR on ranges of arrays of type <code>int</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final int value1 = values1[offset + i];
+		final int value2 = values2[offset + i];
+		result[resultOffset + i] = value1 ^ value2;
+	    }
+	}
+
+	/**
+	 * Element-wise bitwise XOR on ranges of arrays of type <code>long</code>, as a plain loop
+	 * that the JIT compiler may vectorize.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    for (int i = 0; i < length; i++) {
+		final long value1 = values1[offset + i];
+		final long value2 = values2[offset + i];
+		result[resultOffset + i] = value1 ^ value2;
+	    }
+	}
+    }
+
+    /**
+     * Logical AND reduction operator, e.g., to check whether all parties have converged. Non-zero
+     * operands are interpreted as <code>true</code>, and the result is 1 for <code>true</code> and
+     * 0 for <code>false</code>.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class AllReduction extends ReductionOperator {
+	/**
+	 * Logical AND operator on operands of type <code>int</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if both operands are non-zero, otherwise 0
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return value1 != 0 && value2 != 0 ? 1 : 0;
+	}
+
+	/**
+	 * Logical AND operator on operands of type <code>long</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if both operands are non-zero, otherwise 0
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return value1 != 0L && value2 != 0L ? 1L : 0L;
+	}
+
+	/**
+	 * Logical AND operator on operands of type <code>float</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if both operands are non-zero, otherwise 0
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return value1 != 0.0f && value2 != 0.0f ? 1.0f : 0.0f;
+	}
+
+	/**
+	 * Logical AND operator on operands of type <code>double</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if both operands are non-zero, otherwise 0
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return value1 != 0.0 && value2 != 0.0 ? 1.0 : 0.0;
+	}
+    }
+
+    /**
+     * Logical OR reduction operator, e.g., to check whether any party has changed something.
+     * Non-zero operands are interpreted as <code>true</code>, and the result is 1 for
+     * <code>true</code> and 0 for <code>false</code>.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class AnyReduction extends ReductionOperator {
+	/**
+	 * Logical OR operator on operands of type <code>int</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if any operand is non-zero, otherwise 0
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return value1 != 0 || value2 != 0 ? 1 : 0;
+	}
+
+	/**
+	 * Logical OR operator on operands of type <code>long</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if any operand is non-zero, otherwise 0
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return value1 != 0L || value2 != 0L ? 1L : 0L;
+	}
+
+	/**
+	 * Logical OR operator on operands of type <code>float</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if any operand is non-zero, otherwise 0
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return value1 != 0.0f || value2 != 0.0f ? 1.0f : 0.0f;
+	}
+
+	/**
+	 * Logical OR operator on operands of type <code>double</code>.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return 1 if any operand is non-zero, otherwise 0
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return value1 != 0.0 || value2 != 0.0 ? 1.0 : 0.0;
+	}
+    }
+
+    /**
+     * Abstract base class for reduction operators on packed values. Each <code>long</code> (or
+     * <code>int</code>) operand carries several small unsigned values of a fixed number of bits,
+     * e.g., 8 values of 8 bits or 64 values of 1 bit, which are reduced independently of each
+     * other. Thus, a single reduction of a <code>long</code> replaces several reductions, e.g., of
+     * flags or small counters. Values may be packed and unpacked using
+     * {@link #set(long, int, long)} and {@link #get(long, int)}. Operands of type
+     * <code>float</code> and <code>double</code> are treated as their raw bit patterns.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public abstract static class PackedReduction extends ReductionOperator {
+	/**
+	 * The number of bits of a value.
+	 */
+	protected final int bitsPerValue;
+
+	/**
+	 * Mask for the bits of a value at index 0.
+	 */
+	protected final long valueMask;
+
+	/**
+	 * Mask for the most significant bit of each value.
+	 */
+	protected final long highBits;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param bitsPerValue
+	 *            the number of bits of a value (1, 2, 4, 8, 16, or 32)
+	 * @throws IllegalArgumentException
+	 *             if <code>bitsPerValue</code> is not a power of two between 1 and 32
+	 */
+	protected PackedReduction(int bitsPerValue) {
+	    if (bitsPerValue < 1 || bitsPerValue > 32 || Integer.bitCount(bitsPerValue) != 1) {
+		throw new IllegalArgumentException(
+			"Number of bits per value has to be a power of two between 1 and 32!");
+	    }
+	    this.bitsPerValue = bitsPerValue;
+	    valueMask = (1L << bitsPerValue) - 1L;
+	    long bits = 0L;
+	    for (int shift = bitsPerValue - 1; shift < 64; shift += bitsPerValue) {
+		bits |= 1L << shift;
+	    }
+	    highBits = bits;
+	}
+
+	/**
+	 * Provides the number of bits of a value.
+	 * 
+	 * @return the number of bits of a value
+	 */
+	public int getBitsPerValue() {
+	    return bitsPerValue;
+	}
+
+	/**
+	 * Provides the number of values packed into a <code>long</code>.
+	 * 
+	 * @return the number of values packed into a <code>long</code>
+	 */
+	public int getValuesPerLong() {
+	    return 64 / bitsPerValue;
+	}
+
+	/**
+	 * Extracts a value from a packed operand.
+	 * 
+	 * @param packed
+	 *            the packed operand
+	 * @param index
+	 *            the index of the value
+	 * @return the value
+	 */
+	public long get(long packed, int index) {
+	    return (packed >>> (index * bitsPerValue)) & valueMask;
+	}
+
+	/**
+	 * Replaces a value in a packed operand.
+	 * 
+	 * @param packed
+	 *            the packed operand
+	 * @param index
+	 *            the index of the value
+	 * @param value
+	 *            the new value, of which only the lowest <code>bitsPerValue</code> bits are
+	 *            used
+	 * @return the packed operand with the value replaced
+	 */
+	public long set(long packed, int index, long value) {
+	    final int shift = index * bitsPerValue;
+	    return (packed & ~(valueMask << shift)) | ((value & valueMask) << shift);
+	}
+
+	/**
+	 * Compares all values of two packed operands at once. The lower bits of the values are
+	 * subtracted with the most significant bit of each value of <code>value1</code> set, so
+	 * that no borrow crosses into the neighboring value. The most significant bit of a
+	 * difference is then cleared exactly if the lower bits of the value of <code>value1</code>
+	 * are smaller, which decides the comparison if the most significant bits of the two values
+	 * are equal.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return a mask with all bits of a value set if the value of <code>value1</code> is
+	 *         smaller than the value of <code>value2</code>, and cleared otherwise
+	 */
+	protected final long lessThan(long value1, long value2) {
+	    final long difference = (value1 | highBits) - (value2 & ~highBits);
+	    final long less = ((~value1 & value2) | (~(value1 ^ value2) & ~difference)) & highBits;
+	    return (less >>> (bitsPerValue - 1)) * valueMask;
+	}
+
+	/**
+	 * Packed operator on operands of type <code>int</code>, which carry the values in their
+	 * lower 32 bits.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator applied to the values of the two operands
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return (int) operator(value1 & 0xFFFFFFFFL, value2 & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Packed operator on operands of type <code>float</code>, which carry the values in their
+	 * raw bit patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator applied to the values of the two operands
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return Float.intBitsToFloat(operator(Float.floatToRawIntBits(value1),
+		    Float.floatToRawIntBits(value2)));
+	}
+
+	/**
+	 * Packed operator on operands of type <code>double</code>, which carry the values in their
+	 * raw bit patterns.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator applied to the values of the two operands
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return Double.longBitsToDouble(operator(Double.doubleToRawLongBits(value1),
+		    Double.doubleToRawLongBits(value2)));
+	}
+    }
+
+    /**
+     * Sum reduction operator on packed values. Each value is summed modulo 2^bitsPerValue, i.e.,
+     * an overflow does not carry into the neighboring value. For values of 1 bit, the sum is the
+     * parity (XOR) of the bits.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class PackedSumReduction extends PackedReduction {
+	/**
+	 * Constructor.
+	 * 
+	 * @param bitsPerValue
+	 *            the number of bits of a value (1, 2, 4, 8, 16, or 32)
+	 * @throws IllegalArgumentException
+	 *             if <code>bitsPerValue</code> is not a power of two between 1 and 32
+	 */
+	public PackedSumReduction(int bitsPerValue) {
+	    super(bitsPerValue);
+	}
+
+	/**
+	 * Packed sum operator on operands of type <code>long</code>. The lower bits of all values
+	 * are added at once, and the most significant bits are added without carry.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the packed sums of the values of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    final long lowBits = ~highBits;
+	    return ((value1 & lowBits) + (value2 & lowBits)) ^ ((value1 ^ value2) & highBits);
+	}
+    }
+
+    /**
+     * Minimum reduction operator on packed unsigned values. For values of 1 bit, the minimum is
+     * the bitwise AND, e.g., to check a set of flags for all parties at once.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class PackedMinimumReduction extends PackedReduction {
+	/**
+	 * Constructor.
+	 * 
+	 * @param bitsPerValue
+	 *            the number of bits of a value (1, 2, 4, 8, 16, or 32)
+	 * @throws IllegalArgumentException
+	 *             if <code>bitsPerValue</code> is not a power of two between 1 and 32
+	 */
+	public PackedMinimumReduction(int bitsPerValue) {
+	    super(bitsPerValue);
+	}
+
+	/**
+	 * Packed minimum operator on operands of type <code>long</code>. All values are compared
+	 * and selected at once, see {@link #lessThan(long, long)}.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the packed minima of the values of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    if (bitsPerValue == 1) {
+		return value1 & value2;
+	    }
+	    final long less = lessThan(value1, value2);
+	    return (value1 & less) | (value2 & ~less);
+	}
+    }
+
+    /**
+     * Maximum reduction operator on packed unsigned values. For values of 1 bit, the maximum is
+     * the bitwise OR, e.g., to check a set of flags for any party at once.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class PackedMaximumReduction extends PackedReduction {
+	/**
+	 * Constructor.
+	 * 
+	 * @param bitsPerValue
+	 *            the number of bits of a value (1, 2, 4, 8, 16, or 32)
+	 * @throws IllegalArgumentException
+	 *             if <code>bitsPerValue</code> is not a power of two between 1 and 32
+	 */
+	public PackedMaximumReduction(int bitsPerValue) {
+	    super(bitsPerValue);
+	}
+
+	/**
+	 * Packed maximum operator on operands of type <code>long</code>. All values are compared
+	 * and selected at once, see {@link #lessThan(long, long)}.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the packed maxima of the values of the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    if (bitsPerValue == 1) {
+		return value1 | value2;
+	    }
+	    final long less = lessThan(value1, value2);
+	    return (value2 & less) | (value1 & ~less);
+	}
+    }
+
+    /**
+     * Fused reduction operator that applies a different operator to each slot of a small tuple,
+     * e.g., minimum, maximum, and sum of the same value. Used with the array variants of the
+     * <code>await</code> methods, so that all slots are reduced during a single barrier episode.
+     * An array may also contain several consecutive tuples: element <i>i</i> is reduced with
+     * operator <i>i</i> modulo the number of operators. The scalar operators treat a single value
+     * as a tuple of one slot and apply the operator of slot 0.
+     * 
+     * @version 1.0
+     * 
+     * @author Patrick Peschlow
+     */
+    public static class FusedReduction extends ReductionOperator {
+	/**
+	 * The operators for the slots of a tuple.
+	 */
+	private final ReductionOperator[] operators;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param operators
+	 *            the operators for the slots of a tuple
+	 * @throws IllegalArgumentException
+	 *             if no operator is specified
+	 */
+	public FusedReduction(ReductionOperator... operators) {
+	    if (operators.length == 0) {
+		throw new IllegalArgumentException("At least one operator required!");
+	    }
+	    this.operators = operators.clone();
+	}
+
+	/**
+	 * Provides the number of slots of a tuple.
+	 * 
+	 * @return the number of slots of a tuple
+	 */
+	public int getNumSlots() {
+	    return operators.length;
+	}
+
+	/**
+	 * Operator on operands of type <code>int</code>. A single value is treated as a tuple of
+	 * one slot, so the operator of slot 0 is applied.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator of slot 0 applied to the two operands
+	 */
+	@Override
+	protected int operator(int value1, int value2) {
+	    return operators[0].operator(value1, value2);
+	}
+
+	/**
+	 * Operator on operands of type <code>long</code>. A single value is treated as a tuple of
+	 * one slot, so the operator of slot 0 is applied.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator of slot 0 applied to the two operands
+	 */
+	@Override
+	protected long operator(long value1, long value2) {
+	    return operators[0].operator(value1, value2);
+	}
+
+	/**
+	 * Operator on operands of type <code>float</code>. A single value is treated as a tuple of
+	 * one slot, so the operator of slot 0 is applied.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator of slot 0 applied to the two operands
+	 */
+	@Override
+	protected float operator(float value1, float value2) {
+	    return operators[0].operator(value1, value2);
+	}
+
+	/**
+	 * Operator on operands of type <code>double</code>. A single value is treated as a tuple of
+	 * one slot, so the operator of slot 0 is applied.
+	 * 
+	 * @param value1
+	 *            the first operand
+	 * @param value2
+	 *            the second operand
+	 * @return the result of the operator of slot 0 applied to the two operands
+	 */
+	@Override
+	protected double operator(double value1, double value2) {
+	    return operators[0].operator(value1, value2);
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>int</code>. The operator of
+	 * an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(int[] values1, int[] values2, int offset, int[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>long</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(long[] values1, long[] values2, int offset, long[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>float</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(float[] values1, float[] values2, int offset, float[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>double</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(double[] values1, double[] values2, int offset, double[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>byte</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(byte[] values1, byte[] values2, int offset, byte[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>short</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(short[] values1, short[] values2, int offset, short[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
+
+	/**
+	 * Element-wise fused operator on ranges of arrays of type <code>char</code>. The operator
+	 * of an element is determined by its index in the operand arrays.
+	 * 
+	 * @param values1
+	 *            the first operands
+	 * @param values2
+	 *            the second operands
+	 * @param offset
+	 *            the index of the first operands to process
+	 * @param result
+	 *            the array to store the results in
+	 * @param resultOffset
+	 *            the index to store the first result at
+	 * @param length
+	 *            the number of elements to process
+	 */
+	@Override
+	protected void operator(char[] values1, char[] values2, int offset, char[] result,
+		int resultOffset, int length) {
+	    final int numSlots = operators.length;
+	    for (int slot = 0; slot < numSlots; slot++) {
+		final ReductionOperator operator = operators[slot];
+		final int first = ((slot - offset) % numSlots + numSlots) % numSlots;
+		for (int i = first; i < length; i += numSlots) {
+		    result[resultOffset + i] = operator.operator(values1[offset + i],
+			    values2[offset + i]);
+		}
+	    }
+	}
     }
 }
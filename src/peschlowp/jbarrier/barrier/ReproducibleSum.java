@@ -0,0 +1,321 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reproducible sum of double values on top of a long array reduction. The sum of floating point
+ * values depends on the order of the additions, so the results of a {@link FloatReduction} or
+ * {@link DoubleReduction} with a {@link ReductionOperator.SumReduction} change when the barrier
+ * algorithm or the number of parties is changed. Instead, this class converts the values into an
+ * exact fixed-point accumulator covering the whole range of double, made of 32-bit limbs stored
+ * in longs. Since the sum of the accumulators is an integer sum, it is exact and independent of
+ * the order in which the parties are combined. The result is rounded to the nearest double only
+ * once, so it is bitwise identical for all barrier algorithms and party counts.
+ * <p>
+ * The underlying {@link LongReduction} may use any of the barrier algorithms, but has to use a
+ * {@link ReductionOperator.SumReduction}. Each barrier episode reduces an array of
+ * {@link #ACCUMULATOR_LENGTH} longs, which is the cost of reproducibility compared to a scalar
+ * reduction. The total number of values summed in a barrier episode must be less than 2^31.
+ * After a eureka (see {@link AbstractBarrier}), the <code>await</code> methods return the sum of
+ * the values contributed by the calling party.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class ReproducibleSum {
+    /**
+     * The exponent of the least significant bit of limb 0, a multiple of 32 below the exponent of
+     * the smallest subnormal double (-1074).
+     */
+    private static final int MIN_EXPONENT = -1088;
+
+    /**
+     * The number of limbs required to hold any finite double, including carries.
+     */
+    private static final int NUM_LIMBS = 67;
+
+    /**
+     * Index of the counter of NaN values.
+     */
+    private static final int NAN = NUM_LIMBS;
+
+    /**
+     * Index of the counter of positive infinite values.
+     */
+    private static final int POSITIVE_INFINITY = NUM_LIMBS + 1;
+
+    /**
+     * Index of the counter of negative infinite values.
+     */
+    private static final int NEGATIVE_INFINITY = NUM_LIMBS + 2;
+
+    /**
+     * Index of the counter of negative zero values.
+     */
+    private static final int NEGATIVE_ZERO = NUM_LIMBS + 3;
+
+    /**
+     * Index of the counter of all other finite values. A sum of zero is only negative zero if
+     * negative zero values, but no other values, were added, as for a sum of doubles.
+     */
+    private static final int OTHER = NUM_LIMBS + 4;
+
+    /**
+     * The length of an accumulator: the limbs plus counters for the special values.
+     */
+    public static final int ACCUMULATOR_LENGTH = NUM_LIMBS + 5;
+
+    /**
+     * Mask for the 32 bits of a normalized limb.
+     */
+    private static final long LIMB_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The underlying long array reduction.
+     */
+    private final LongReduction reduction;
+
+    /**
+     * The accumulators of the parties. Key: party ID.
+     */
+    private final long[][] accumulators;
+
+    /**
+     * Constructor.
+     * 
+     * @param reduction
+     *            the underlying long array reduction, which has to use a
+     *            {@link ReductionOperator.SumReduction}
+     */
+    public ReproducibleSum(LongReduction reduction) {
+	this.reduction = reduction;
+	accumulators = new long[reduction.getNumParties()][ACCUMULATOR_LENGTH];
+    }
+
+    /**
+     * Called by a party that reaches the barrier.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the sum
+     * @return the correctly rounded sum of the values of all parties
+     */
+    public double await(int threadId, double value) {
+	final long[] accumulator = accumulators[threadId];
+	clear(accumulator);
+	add(accumulator, value);
+	reduction.await(threadId, accumulator, accumulator);
+	return toDouble(accumulator);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param value
+     *            the value subject to the sum
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @return the correctly rounded sum of the values of all parties
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    public double await(int threadId, double value, long timeout, TimeUnit unit)
+	    throws InterruptedException, BrokenBarrierException, TimeoutException {
+	final long[] accumulator = accumulators[threadId];
+	clear(accumulator);
+	add(accumulator, value);
+	reduction.await(threadId, accumulator, accumulator, timeout, unit);
+	return toDouble(accumulator);
+    }
+
+    /**
+     * Called by a party that reaches the barrier, contributing several values. The local values
+     * are summed exactly as well, so the result does not depend on how the values are distributed
+     * among the parties.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param values
+     *            the values subject to the sum
+     * @return the correctly rounded sum of the values of all parties
+     */
+    public double await(int threadId, double[] values) {
+	final long[] accumulator = accumulators[threadId];
+	clear(accumulator);
+	for (int i = 0; i < values.length; i++) {
+	    add(accumulator, values[i]);
+	}
+	reduction.await(threadId, accumulator, accumulator);
+	return toDouble(accumulator);
+    }
+
+    /**
+     * Resets an accumulator to zero.
+     * 
+     * @param accumulator
+     *            the accumulator, of length {@link #ACCUMULATOR_LENGTH}
+     */
+    public static void clear(long[] accumulator) {
+	Arrays.fill(accumulator, 0, ACCUMULATOR_LENGTH, 0L);
+    }
+
+    /**
+     * Adds a value to an accumulator exactly. The limbs are not normalized, so that accumulators
+     * may be summed element by element.
+     * 
+     * @param accumulator
+     *            the accumulator, of length {@link #ACCUMULATOR_LENGTH}
+     * @param value
+     *            the value to add
+     */
+    public static void add(long[] accumulator, double value) {
+	if (value != value) {
+	    accumulator[NAN]++;
+	    return;
+	}
+	if (value == Double.POSITIVE_INFINITY) {
+	    accumulator[POSITIVE_INFINITY]++;
+	    return;
+	}
+	if (value == Double.NEGATIVE_INFINITY) {
+	    accumulator[NEGATIVE_INFINITY]++;
+	    return;
+	}
+	final long bits = Double.doubleToRawLongBits(value);
+	if (bits == Long.MIN_VALUE) {
+	    accumulator[NEGATIVE_ZERO]++;
+	    return;
+	}
+	accumulator[OTHER]++;
+	final int biasedExponent = (int) (bits >>> 52) & 0x7FF;
+	long mantissa = bits & 0xFFFFFFFFFFFFFL;
+	if (biasedExponent != 0) {
+	    mantissa |= 0x10000000000000L;
+	} else if (mantissa == 0L) {
+	    return;
+	}
+	// value = +-mantissa * 2^exponent, with the exponent of a subnormal being the one of the
+	// smallest normal double.
+	final int exponent = Math.max(biasedExponent, 1) - 1075;
+	final int position = exponent - MIN_EXPONENT;
+	final int limb = position >>> 5;
+	final int shift = position & 31;
+	final long limb0 = (mantissa << shift) & LIMB_MASK;
+	final long limb1 = (mantissa >>> (32 - shift)) & LIMB_MASK;
+	final long limb2 = shift == 0 ? 0L : mantissa >>> (64 - shift);
+	if (bits < 0L) {
+	    accumulator[limb] -= limb0;
+	    accumulator[limb + 1] -= limb1;
+	    accumulator[limb + 2] -= limb2;
+	} else {
+	    accumulator[limb] += limb0;
+	    accumulator[limb + 1] += limb1;
+	    accumulator[limb + 2] += limb2;
+	}
+    }
+
+    /**
+     * Converts an accumulator into the nearest double (ties to even). The accumulator is
+     * normalized in place, which does not change the value it represents.
+     * 
+     * @param accumulator
+     *            the accumulator, of length {@link #ACCUMULATOR_LENGTH}
+     * @return the nearest double
+     */
+    public static double toDouble(long[] accumulator) {
+	if (accumulator[NAN] != 0L
+		|| (accumulator[POSITIVE_INFINITY] != 0L && accumulator[NEGATIVE_INFINITY] != 0L)) {
+	    return Double.NaN;
+	}
+	if (accumulator[POSITIVE_INFINITY] != 0L) {
+	    return Double.POSITIVE_INFINITY;
+	}
+	if (accumulator[NEGATIVE_INFINITY] != 0L) {
+	    return Double.NEGATIVE_INFINITY;
+	}
+	normalize(accumulator);
+	final boolean isNegative = accumulator[NUM_LIMBS - 1] < 0L;
+	if (isNegative) {
+	    for (int i = 0; i < NUM_LIMBS; i++) {
+		accumulator[i] = -accumulator[i];
+	    }
+	    normalize(accumulator);
+	}
+	int top = NUM_LIMBS - 1;
+	while (top >= 0 && accumulator[top] == 0L) {
+	    top--;
+	}
+	if (top < 0) {
+	    return accumulator[NEGATIVE_ZERO] != 0L && accumulator[OTHER] == 0L ? -0.0 : 0.0;
+	}
+	// Collect the 64 most significant bits, with the leading one at bit 63.
+	final int leadingZeros = Long.numberOfLeadingZeros(accumulator[top]) - 32;
+	final long next = top >= 1 ? accumulator[top - 1] : 0L;
+	final long nextNext = top >= 2 ? accumulator[top - 2] : 0L;
+	long window = (accumulator[top] << (32 + leadingZeros)) | (next << leadingZeros);
+	if (leadingZeros > 0) {
+	    window |= nextNext >>> (32 - leadingZeros);
+	}
+	boolean sticky = (nextNext & (LIMB_MASK >>> leadingZeros)) != 0L;
+	for (int i = top - 3; i >= 0 && !sticky; i--) {
+	    sticky = accumulator[i] != 0L;
+	}
+	// Exponent of the leading one.
+	final int exponent = MIN_EXPONENT + 32 * top + 31 - leadingZeros;
+	// Keep 53 bits, or less for subnormal results.
+	final int shift = 11 + Math.max(0, -1022 - exponent);
+	long mantissa = window >>> shift;
+	final boolean roundBit = ((window >>> (shift - 1)) & 1L) != 0L;
+	sticky |= (window & ((1L << (shift - 1)) - 1L)) != 0L;
+	if (roundBit && (sticky || (mantissa & 1L) != 0L)) {
+	    mantissa++;
+	}
+	final double magnitude = Math.scalb((double) mantissa, exponent - 63 + shift);
+	return isNegative ? -magnitude : magnitude;
+    }
+
+    /**
+     * Propagates the carries of the limbs of an accumulator, so that all limbs except the most
+     * significant one are in the range [0, 2^32).
+     * 
+     * @param accumulator
+     *            the accumulator, of length {@link #ACCUMULATOR_LENGTH}
+     */
+    private static void normalize(long[] accumulator) {
+	long carry = 0L;
+	for (int i = 0; i < NUM_LIMBS - 1; i++) {
+	    final long limb = accumulator[i] + carry;
+	    accumulator[i] = limb & LIMB_MASK;
+	    carry = limb >> 32;
+	}
+	accumulator[NUM_LIMBS - 1] += carry;
+    }
+}
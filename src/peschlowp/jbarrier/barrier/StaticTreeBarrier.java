@@ -15,6 +15,9 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import peschlowp.jbarrier.util.Utils;
@@ -127,7 +130,43 @@ public class StaticTreeBarrier extends AbstractBarrier {
      */
     @Override
     public void await(int threadId) {
-	parties[threadId].await();
+	try {
+	    parties[threadId].await(NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -164,6 +203,11 @@ public class StaticTreeBarrier extends AbstractBarrier {
 	 */
 	protected final int RIGHT_CHILD;
 
+	/**
+	 * Pre-computed IDs of my children in the tree, in the order in which they are reduced.
+	 */
+	protected final int[] children;
+
 	/**
 	 * Constructor.
 	 * 
@@ -176,61 +220,90 @@ public class StaticTreeBarrier extends AbstractBarrier {
 	    THRESH = (numParties - 1) / 2;
 	    LEFT_CHILD = 2 * id + 1;
 	    RIGHT_CHILD = 2 * id + 2;
+	    if (id == 0) {
+		children = new int[Math.min(numParties - 1, 3)];
+		for (int i = 0; i < children.length; i++) {
+		    children[i] = i < 2 ? i + 1 : numParties - 1;
+		}
+	    } else if (id < THRESH) {
+		children = new int[] { LEFT_CHILD, RIGHT_CHILD };
+	    } else {
+		children = new int[0];
+	    }
 	}
 
 	/**
 	 * Called when this party reaches the barrier.
+	 * 
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 */
-	protected void await() {
+	protected void await(long deadline) {
+	    enter(id);
 	    sense = !sense;
 	    if (id == 0) {
 		while (flags[1].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
-		if (genericReductor != null) {
+		if (genericReductor != null && batchReductor == null) {
 		    genericReductor.reduce(id, 1);
 		}
 		if (numParties > 2) {
 		    while (flags[2].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
-		    if (genericReductor != null) {
+		    if (genericReductor != null && batchReductor == null) {
 			genericReductor.reduce(id, 2);
 		    }
 		    if (numParties > 3) {
 			while (flags[numParties - 1].get() != sense) {
 			    // Busy-wait.
+			    checkWait(deadline);
 			}
-			if (genericReductor != null) {
+			if (genericReductor != null && batchReductor == null) {
 			    genericReductor.reduce(id, numParties - 1);
 			}
 		    }
 		}
+		// All children have arrived, reduce them at once.
+		if (batchReductor != null) {
+		    batchReductor.reduce(id, children, children.length);
+		}
 		if (action != null) {
-		    action.run();
+		    runAction();
 		}
 		flagOut = sense;
 	    } else if (id < THRESH) {
 		while (flags[LEFT_CHILD].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
-		if (genericReductor != null) {
+		if (genericReductor != null && batchReductor == null) {
 		    genericReductor.reduce(id, LEFT_CHILD);
 		}
 		while (flags[RIGHT_CHILD].get() != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
-		if (genericReductor != null) {
+		if (genericReductor != null && batchReductor == null) {
 		    genericReductor.reduce(id, RIGHT_CHILD);
 		}
+		// Both children have arrived, reduce them at once.
+		if (batchReductor != null) {
+		    batchReductor.reduce(id, children, children.length);
+		}
 		flags[id].set(sense);
 		while (flagOut != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 	    } else {
 		flags[id].set(sense);
 		while (flagOut != sense) {
 		    // Busy-wait.
+		    checkWait(deadline);
 		}
 	    }
 	}
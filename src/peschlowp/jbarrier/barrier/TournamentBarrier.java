@@ -15,6 +15,9 @@
  */
 package peschlowp.jbarrier.barrier;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import peschlowp.jbarrier.util.Utils;
@@ -124,7 +127,43 @@ public class TournamentBarrier extends AbstractBarrier {
      */
     @Override
     public void await(int threadId) {
-	parties[threadId].await();
+	try {
+	    parties[threadId].await(NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
+    }
+
+    /**
+     * Called by a party that reaches the barrier, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the barrier
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	} catch (RuntimeException e) {
+	    throw failed(e);
+	}
     }
 
     /**
@@ -201,8 +240,12 @@ public class TournamentBarrier extends AbstractBarrier {
 
 	/**
 	 * Called when this party reaches the barrier.
+	 * 
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
 	 */
-	protected void await() {
+	protected void await(long deadline) {
+	    enter(id);
 	    sense = !sense;
 	    int currentRound = 0;
 	    for (;;) {
@@ -211,6 +254,7 @@ public class TournamentBarrier extends AbstractBarrier {
 		case WINNER:
 		    while (flags[currentRound].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    if (genericReductor != null) {
 			genericReductor.reduce(id, roundObj.partnerId);
@@ -227,18 +271,20 @@ public class TournamentBarrier extends AbstractBarrier {
 		    // Wait for the tournament winner (root).
 		    while (flagOut != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    // Exit switch statement (and thus the for loop).
 		    break;
 		case ROOT:
 		    while (flags[currentRound].get() != sense) {
 			// Busy-wait.
+			checkWait(deadline);
 		    }
 		    if (genericReductor != null) {
 			genericReductor.reduce(id, roundObj.partnerId);
 		    }
 		    if (action != null) {
-			action.run();
+			runAction();
 		    }
 		    flagOut = sense;
 		    // Exit switch statement (and thus the for loop).
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.barrier;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of a wavefront (doacross) synchronizer for pipelined loop execution. Party
+ * <i>i</i> may only start phase <i>p</i> when party <i>i</i>-<i>d</i> has finished phase <i>p</i>,
+ * where <i>d</i> is the dependency offset (1 by default). The first <i>d</i> parties do not depend
+ * on any other party. Typical applications are Gauss-Seidel sweeps or dynamic programming
+ * algorithms like sequence alignment, where a full barrier after each phase would serialize the
+ * pipeline.
+ * <p>
+ * A party calls {@link #await(int)} before it starts a phase and {@link #signal(int)} when it has
+ * finished the phase. Each party publishes the number of phases it has finished in its own epoch
+ * counter, and its successor spins on that counter. Since a party never waits for its successor,
+ * it may run ahead by an arbitrary number of phases. Neither a barrier action nor a generic
+ * reductor is supported.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class WavefrontBarrier extends AbstractBarrier {
+    /**
+     * The dependency offset.
+     */
+    protected final int offset;
+
+    /**
+     * The barrier information associated to each party.
+     */
+    protected WavefrontBarrierParty[] parties;
+
+    /**
+     * Constructor.
+     * 
+     * @param numParties
+     *            the number of parties taking part in the wavefront
+     * @param offset
+     *            the dependency offset, i.e., party <i>i</i> waits for party <i>i</i>-
+     *            <code>offset</code>
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2 or <code>offset</code> is not in
+     *             1..<code>numParties</code>-1
+     */
+    public WavefrontBarrier(int numParties, int offset) {
+	super(numParties, null, null);
+	if (offset < 1 || offset >= numParties) {
+	    throw new IllegalArgumentException("Invalid dependency offset!");
+	}
+	this.offset = offset;
+	parties = new WavefrontBarrierParty[numParties];
+	for (int i = 0; i < numParties; i++) {
+	    parties[i] = new WavefrontBarrierParty(i);
+	}
+	for (int i = 0; i < numParties; i++) {
+	    parties[i].setupBarrier();
+	}
+    }
+
+    /**
+     * Constructor (each party depends on its direct predecessor).
+     * 
+     * @param numParties
+     *            the number of parties taking part in the wavefront
+     * @throws IllegalArgumentException
+     *             if <code>numParties</code> is less than 2
+     */
+    public WavefrontBarrier(int numParties) {
+	this(numParties, 1);
+    }
+
+    /**
+     * Called by a party before it starts its next phase. Waits until the party it depends on has
+     * finished the same phase.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    @Override
+    public void await(int threadId) {
+	try {
+	    parties[threadId].await(NO_DEADLINE);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party before it starts its next phase, waiting at most for the given timeout.
+     * 
+     * @param threadId
+     *            the ID of the party
+     * @param timeout
+     *            the maximum time to wait for the party it depends on
+     * @param unit
+     *            the time unit of the <code>timeout</code> parameter
+     * @throws InterruptedException
+     *             if the calling party was interrupted while waiting
+     * @throws BrokenBarrierException
+     *             if the barrier is or becomes broken while waiting
+     * @throws TimeoutException
+     *             if the timeout elapsed
+     */
+    @Override
+    public void await(int threadId, long timeout, TimeUnit unit) throws InterruptedException,
+	    BrokenBarrierException, TimeoutException {
+	try {
+	    parties[threadId].await(deadline(timeout, unit));
+	} catch (BarrierBrokenException e) {
+	    throw translate(e);
+	} catch (EurekaSignal e) {
+	    // Return immediately.
+	}
+    }
+
+    /**
+     * Called by a party when it has finished its current phase.
+     * 
+     * @param threadId
+     *            the ID of the party
+     */
+    public void signal(int threadId) {
+	parties[threadId].signal();
+    }
+
+    /**
+     * Stores data required by each party that uses the barrier.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    protected class WavefrontBarrierParty {
+	/**
+	 * Unique id of this party [0 .. numParties-1].
+	 */
+	protected final int id;
+
+	/**
+	 * The number of phases finished by this party, only written by this party.
+	 */
+	protected long phase;
+
+	/**
+	 * Epoch counter publishing the number of phases finished by this party.
+	 */
+	protected final AtomicLong finished;
+
+	/**
+	 * The party this party depends on, or <code>null</code> if there is none.
+	 */
+	protected WavefrontBarrierParty predecessor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id
+	 *            the numeric id of this party within the barrier
+	 */
+	protected WavefrontBarrierParty(int id) {
+	    this.id = id;
+	    phase = 0L;
+	    finished = new AtomicLong(0L);
+	}
+
+	/**
+	 * Sets up this party for the barrier algorithm.
+	 */
+	protected void setupBarrier() {
+	    predecessor = id >= offset ? parties[id - offset] : null;
+	}
+
+	/**
+	 * Called when this party is about to start its next phase.
+	 * 
+	 * @param deadline
+	 *            the deadline in terms of {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+	 */
+	protected void await(long deadline) {
+	    enter(id);
+	    if (predecessor != null) {
+		while (predecessor.finished.get() <= phase) {
+		    // Busy-wait.
+		    checkWait(deadline);
+		}
+	    }
+	}
+
+	/**
+	 * Called when this party has finished its current phase.
+	 */
+	protected void signal() {
+	    phase++;
+	    // An ordered write is sufficient, as only this party writes the counter.
+	    finished.lazySet(phase);
+	}
+    }
+}
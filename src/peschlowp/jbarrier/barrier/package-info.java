@@ -11,7 +11,12 @@
  * a barrier based on a single shared counter (central barrier) and four
  * tree-based barriers (butterfly barrier, dissemination barrier, static tree
  * barrier, tournament barrier). With increasing numbers of threads, tree-based
- * barriers offer higher scalability than a central barrier.
+ * barriers offer higher scalability than a central barrier. For computations
+ * where each thread only depends on a few neighbors, such as stencil codes, the
+ * {@link peschlowp.jbarrier.barrier.NeighborBarrier} avoids global
+ * synchronization altogether. Similarly, pipelined loops where each thread
+ * only waits for its predecessor to finish a phase may use the
+ * {@link peschlowp.jbarrier.barrier.WavefrontBarrier}.
  * <p>
  * In addition to pure thread synchronization, the barriers of this package have
  * two important features:
@@ -27,17 +32,68 @@
  * <ul>
  * <li>For popular types of reductions, i.e., minimum, maximum, and sum, special
  * "reduction barrier" classes are available for the primitive types int, long,
- * float, and double (e.g.,
+ * float, double, byte, short, and char (e.g.,
  * {@link peschlowp.jbarrier.barrier.FloatButterflyReduction}). With a
  * reduction barrier, each thread hands its local value to the await() method of
  * the barrier and retrieves the result of the global reduction as a return
- * value as soon as the barrier is completed. Using one of these classes may do
- * the job in a number of use cases.
+ * value as soon as the barrier is completed. For the minimum, maximum, and sum
+ * operators, specialized variants of these classes are generated as well
+ * (e.g., {@link peschlowp.jbarrier.barrier.IntSumButterflyReduction}), which
+ * do not take a reduction operator, so that the JIT compiler may inline the
+ * operator even if an application uses several operators. Alternatively,
+ * whole arrays may be reduced element by element during a single barrier,
+ * optionally with a different operator per element (see
+ * {@link peschlowp.jbarrier.barrier.ReductionOperator.FusedReduction}). For
+ * argmin/argmax reductions, which also identify the thread that contributed
+ * the selected value, see
+ * {@link peschlowp.jbarrier.barrier.FloatTournamentArgReduction}. For commutative
+ * operators, the {@link peschlowp.jbarrier.barrier.FloatCentralAtomicReduction}
+ * lets each thread combine its value into a shared accumulator on arrival, so
+ * that the result is ready as soon as the last thread arrives. Using one of
+ * these classes may do the job in a number of use cases. Convergence and
+ * termination checks may use the bitwise and logical operators (e.g.,
+ * {@link peschlowp.jbarrier.barrier.ReductionOperator.AnyReduction}) or the
+ * {@link peschlowp.jbarrier.barrier.BooleanCentralReduction}, which packs the
+ * votes of the threads into words. Several flags or small counters may also be
+ * packed into a single int or long and reduced at once (see
+ * {@link peschlowp.jbarrier.barrier.ReductionOperator.PackedReduction}).
+ * Scalar reductions of 32-bit values may use the
+ * {@link peschlowp.jbarrier.barrier.ButterflyFlagReduction} or the
+ * {@link peschlowp.jbarrier.barrier.TournamentFlagReduction}, which transfer
+ * each value together with the synchronization flag in a single word.
+ * Floating point sums that have to be bitwise reproducible, regardless of the
+ * barrier algorithm and the number of threads, may use the
+ * {@link peschlowp.jbarrier.barrier.ReproducibleSum}.
+ * <li>Reductions on objects of arbitrary type (e.g., histograms) are supported
+ * by the object reduction barriers (e.g.,
+ * {@link peschlowp.jbarrier.barrier.ObjectTournamentReduction}), which take an
+ * {@link peschlowp.jbarrier.barrier.ObjectReductionOperator} and manage the
+ * intermediate results of the threads internally.
  * <li>The constructors of the standard barrier classes (such as
  * {@link peschlowp.jbarrier.barrier.TournamentBarrier}) take an optional
  * argument of type {@link peschlowp.jbarrier.barrier.GenericReductor}.
  * Using a generic reductor, arbitrary types of reductions (e.g., several
  * reductions in parallel during the same barrier) may be implemented.
+ * A {@link peschlowp.jbarrier.barrier.BatchGenericReductor} additionally
+ * receives all threads that are ready at the same time in a single call.
  * </ul>
+ * Besides reductions, prefix scans over the values of the threads (e.g.,
+ * {@link peschlowp.jbarrier.barrier.FloatDisseminationScan}), allgather
+ * operations (e.g., {@link peschlowp.jbarrier.barrier.FloatButterflyAllgather}),
+ * reduce-scatter operations, where each thread only receives its own segment
+ * of a reduced array (e.g.,
+ * {@link peschlowp.jbarrier.barrier.FloatButterflyReduceScatter}),
+ * broadcasts from an arbitrary thread (e.g.,
+ * {@link peschlowp.jbarrier.barrier.FloatTreeBroadcast}), gathers to and
+ * scatters from an arbitrary thread (e.g.,
+ * {@link peschlowp.jbarrier.barrier.FloatTreeGatherScatter}), and all-to-all
+ * exchanges, where each thread provides a value for each other thread (e.g.,
+ * {@link peschlowp.jbarrier.barrier.FloatPairwiseAlltoall}), are available for
+ * the primitive types.
+ * All barriers support timed and interruptible waiting and enter a broken state
+ * if something goes wrong, so that waiting threads stop spinning (see
+ * {@link peschlowp.jbarrier.barrier.AbstractBarrier}). Threads that terminate
+ * or get stuck without ever reaching the barrier may be detected by an optional
+ * {@link peschlowp.jbarrier.barrier.BarrierWatchdog}.
  */
 package peschlowp.jbarrier.barrier;
\ No newline at end of file
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.examples;
+
+import java.util.Arrays;
+
+import peschlowp.jbarrier.barrier.FloatButterflyReduction;
+import peschlowp.jbarrier.barrier.FloatDisseminationReduction;
+import peschlowp.jbarrier.barrier.FloatReduction;
+import peschlowp.jbarrier.barrier.ReductionOperator;
+import peschlowp.jbarrier.barrier.TournamentBarrier;
+
+/**
+ * Performance test class for allreduce operations on large float arrays. Each thread repeatedly
+ * contributes an array which is summed up element by element, and every thread receives the
+ * whole result. The following variants are compared:
+ * <ul>
+ * <li>NAIVE: each thread copies its array into a shared slot, waits at a
+ * {@link TournamentBarrier}, sums up the slots of all threads, and waits again before the slots
+ * may be overwritten.
+ * <li>DOUBLING: a {@link FloatButterflyReduction} that always uses recursive doubling.
+ * <li>RABENSEIFNER: a {@link FloatButterflyReduction} that always uses Rabenseifner's algorithm.
+ * <li>RING: a {@link FloatDisseminationReduction} that always uses the ring schedule.
+ * <li>DEFAULT: a {@link FloatButterflyReduction} that picks the algorithm by the array length.
+ * <li>MIXED_BUTTERFLY and MIXED_RING: a {@link FloatButterflyReduction} and a
+ * {@link FloatDisseminationReduction} with the array length as threshold, where the threads
+ * alternate irregularly between their whole arrays and the first halves of them. Thus, the
+ * algorithms for large and small arrays are mixed across the barrier episodes.
+ * </ul>
+ * The results of all variants are checked against a sequential computation.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class AllreduceExample {
+    /**
+     * The variants of the allreduce that are compared.
+     */
+    private enum Variant {
+	NAIVE, DOUBLING, RABENSEIFNER, RING, DEFAULT, MIXED_BUTTERFLY, MIXED_RING
+    }
+
+    /**
+     * Number of tests to be performed per variant.
+     */
+    private static int numTests;
+
+    /**
+     * Number of elements of the arrays.
+     */
+    private static int length;
+
+    /**
+     * Number of threads to be used during the test.
+     */
+    private static int numThreads;
+
+    /**
+     * Number of allreduce operations per test.
+     */
+    private static int numIterations;
+
+    /**
+     * The result computed sequentially.
+     */
+    private static float[] expected;
+
+    /**
+     * The shared slots of the threads, used by the naive variant.
+     */
+    private static float[][] slots;
+
+    /**
+     * The barrier used by the naive variant.
+     */
+    private static TournamentBarrier barrier;
+
+    /**
+     * The reduction used by the other variants.
+     */
+    private static FloatReduction reduction;
+
+    /**
+     * Main method
+     * 
+     * @param args
+     *            Program arguments
+     */
+    public static void main(String[] args) {
+	if (args.length != 4) {
+	    die("Wrong number of parameters!\n" + getUsageMessage());
+	}
+	numTests = Integer.parseInt(args[0]);
+	if (numTests <= 0) {
+	    die("Invalid first parameter!\n" + getUsageMessage());
+	}
+	length = Integer.parseInt(args[1]);
+	if (length <= 0) {
+	    die("Invalid second parameter!\n" + getUsageMessage());
+	}
+	numThreads = Integer.parseInt(args[2]);
+	if (numThreads < 2 || Integer.bitCount(numThreads) != 1) {
+	    die("Invalid third parameter!\n" + getUsageMessage());
+	}
+	numIterations = Integer.parseInt(args[3]);
+	if (numIterations <= 0) {
+	    die("Invalid fourth parameter!\n" + getUsageMessage());
+	}
+
+	System.out.println("Starting experiment! Details:\ntests = " + numTests + "\nlength = "
+		+ length + "\nthreads = " + numThreads + "\niterations = " + numIterations + "\n");
+
+	expected = new float[length];
+	for (int threadId = 0; threadId < numThreads; threadId++) {
+	    for (int i = 0; i < length; i++) {
+		expected[i] += value(threadId, i);
+	    }
+	}
+	final Variant[] variants = Variant.values();
+	for (int i = 0; i < variants.length; i++) {
+	    testParallel(variants[i]);
+	}
+    }
+
+    /**
+     * Runs the allreduce operations in parallel.
+     * 
+     * @param variant
+     *            the variant of the allreduce to use
+     */
+    private static void testParallel(Variant variant) {
+	System.out.print(variant + ":");
+	final AllreduceThread[] threads = new AllreduceThread[numThreads];
+	final ReductionOperator sum = new ReductionOperator.SumReduction();
+	for (int test = 0; test < numTests; test++) {
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId] = new AllreduceThread(threadId, variant);
+	    }
+	    switch (variant) {
+	    case NAIVE:
+		slots = new float[numThreads][length];
+		barrier = new TournamentBarrier(numThreads);
+		break;
+	    case DOUBLING:
+		reduction = new FloatButterflyReduction(numThreads, null, sum, Integer.MAX_VALUE);
+		break;
+	    case RABENSEIFNER:
+		reduction = new FloatButterflyReduction(numThreads, null, sum, 0);
+		break;
+	    case RING:
+		reduction = new FloatDisseminationReduction(numThreads, null, sum, 0);
+		break;
+	    case DEFAULT:
+		reduction = new FloatButterflyReduction(numThreads, sum);
+		break;
+	    case MIXED_BUTTERFLY:
+		reduction = new FloatButterflyReduction(numThreads, null, sum, length);
+		break;
+	    case MIXED_RING:
+		reduction = new FloatDisseminationReduction(numThreads, null, sum, length);
+		break;
+	    }
+	    final long t1 = System.nanoTime();
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId].start();
+	    }
+	    try {
+		for (int threadId = 0; threadId < numThreads; threadId++) {
+		    threads[threadId].join();
+		}
+	    } catch (InterruptedException e) {
+		System.out.print("InterruptedException!");
+		e.printStackTrace();
+	    }
+	    System.out.print("\t" + (System.nanoTime() - t1) / 1000000.0 + " ms");
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		if (threads[threadId].hasFailed()
+			|| !Arrays.equals(threads[threadId].getResult(), expected)) {
+		    System.out.println("Reduction failed");
+		    System.err.println("Reduction failed");
+		    break;
+		}
+	    }
+	}
+	System.out.println();
+    }
+
+    /**
+     * Computes the value contributed by a thread for an element. The values are small integers,
+     * so that the float sums are exact regardless of the order of the additions.
+     * 
+     * @param threadId
+     *            the ID of the thread
+     * @param index
+     *            the index of the element
+     * @return the value contributed
+     */
+    private static float value(int threadId, int index) {
+	return (threadId * 7 + index) % 16;
+    }
+
+    /**
+     * Prints usage information.
+     * 
+     * @return a string containing the usage information
+     */
+    private static String getUsageMessage() {
+	String usage = "Usage:\n"
+		+ "java "
+		+ AllreduceExample.class.getSimpleName()
+		+ " <tests> <length> <threads> <iterations>\n\n"
+		+ "<tests>: a positive integer; the number of tests to be performed per variant\n"
+		+ "<length>: a positive integer; the number of elements of the arrays subject to the reduction\n"
+		+ "<threads>: a power of two >= 2: the number of threads\n"
+		+ "<iterations>: a positive integer; the number of allreduce operations per test";
+	return usage;
+    }
+
+    /**
+     * Terminate the program in case of invalid arguments.
+     * 
+     * @param msg
+     *            custom error message.
+     */
+    private static void die(String msg) {
+	System.out.println(msg);
+	System.err.println(msg);
+	System.exit(-1);
+    }
+
+    /**
+     * A worker thread which repeatedly contributes its array to an allreduce.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    static class AllreduceThread extends Thread {
+	/**
+	 * The unique id of this thread.
+	 */
+	private final int threadId_;
+
+	/**
+	 * The variant of the allreduce to use.
+	 */
+	private final Variant variant_;
+
+	/**
+	 * The array contributed by this thread.
+	 */
+	private final float[] in_;
+
+	/**
+	 * The result of the last allreduce.
+	 */
+	private final float[] out_;
+
+	/**
+	 * The first half of the array contributed by this thread, used by the mixed variants.
+	 */
+	private final float[] halfIn_;
+
+	/**
+	 * The result of the last allreduce of the first halves, used by the mixed variants.
+	 */
+	private final float[] halfOut_;
+
+	/**
+	 * Whether the result of an allreduce of the first halves was wrong.
+	 */
+	private boolean failed_;
+
+	/**
+	 * Creates a thread which contributes its array to an allreduce.
+	 * 
+	 * @param threadId
+	 *            The unique id of this thread
+	 * @param variant
+	 *            The variant of the allreduce to use
+	 */
+	public AllreduceThread(int threadId, Variant variant) {
+	    threadId_ = threadId;
+	    variant_ = variant;
+	    in_ = new float[length];
+	    for (int i = 0; i < length; i++) {
+		in_[i] = value(threadId, i);
+	    }
+	    out_ = new float[length];
+	    halfIn_ = Arrays.copyOf(in_, length / 2);
+	    halfOut_ = new float[length / 2];
+	    failed_ = false;
+	}
+
+	/**
+	 * Returns the result of the last allreduce.
+	 * 
+	 * @return the result of the last allreduce
+	 */
+	public float[] getResult() {
+	    return out_;
+	}
+
+	/**
+	 * Returns whether the result of an allreduce of the first halves was wrong.
+	 * 
+	 * @return <code>true</code> if the result of an allreduce of the first halves was wrong,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean hasFailed() {
+	    return failed_;
+	}
+
+	/**
+	 * Runs the allreduce operations with the naive variant.
+	 */
+	private void runNaive() {
+	    for (int iteration = 0; iteration < numIterations; iteration++) {
+		System.arraycopy(in_, 0, slots[threadId_], 0, length);
+		barrier.await(threadId_);
+		System.arraycopy(slots[0], 0, out_, 0, length);
+		for (int threadId = 1; threadId < numThreads; threadId++) {
+		    final float[] slot = slots[threadId];
+		    for (int i = 0; i < length; i++) {
+			out_[i] += slot[i];
+		    }
+		}
+		barrier.await(threadId_);
+	    }
+	}
+
+	/**
+	 * Runs the allreduce operations with a reduction barrier.
+	 */
+	private void runReduction() {
+	    for (int iteration = 0; iteration < numIterations; iteration++) {
+		reduction.await(threadId_, in_, out_);
+	    }
+	}
+
+	/**
+	 * Runs the allreduce operations with a reduction barrier, alternating irregularly between
+	 * the whole arrays and their first halves. The results of the first halves are checked
+	 * immediately, as they are overwritten by the next allreduce.
+	 */
+	private void runMixed() {
+	    for (int iteration = 0; iteration < numIterations; iteration++) {
+		// The last allreduce uses the whole arrays, whose result is checked afterwards.
+		if (iteration + 1 == numIterations || Integer.bitCount(iteration) % 2 == 0) {
+		    reduction.await(threadId_, in_, out_);
+		} else {
+		    reduction.await(threadId_, halfIn_, halfOut_);
+		    for (int i = 0; i < halfOut_.length; i++) {
+			if (halfOut_[i] != expected[i]) {
+			    failed_ = true;
+			}
+		    }
+		}
+	    }
+	}
+
+	/**
+	 * @see java.lang.Thread#run()
+	 */
+	@Override
+	public void run() {
+	    if (variant_ == Variant.NAIVE) {
+		runNaive();
+	    } else if (variant_ == Variant.MIXED_BUTTERFLY || variant_ == Variant.MIXED_RING) {
+		runMixed();
+	    } else {
+		runReduction();
+	    }
+	}
+    }
+}
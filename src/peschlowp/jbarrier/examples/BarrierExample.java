@@ -16,6 +16,7 @@
 package peschlowp.jbarrier.examples;
 
 import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 
@@ -30,7 +31,14 @@ import peschlowp.jbarrier.barrier.FloatReduction;
 import peschlowp.jbarrier.barrier.FloatStaticTreeReduction;
 import peschlowp.jbarrier.barrier.FloatTournamentReduction;
 import peschlowp.jbarrier.barrier.GenericReductor;
+import peschlowp.jbarrier.barrier.LongButterflyReduction;
+import peschlowp.jbarrier.barrier.LongCentralReduction;
+import peschlowp.jbarrier.barrier.LongDisseminationReduction;
+import peschlowp.jbarrier.barrier.LongReduction;
+import peschlowp.jbarrier.barrier.LongStaticTreeReduction;
+import peschlowp.jbarrier.barrier.LongTournamentReduction;
 import peschlowp.jbarrier.barrier.ReductionOperator;
+import peschlowp.jbarrier.barrier.ReproducibleSum;
 import peschlowp.jbarrier.barrier.StaticTreeBarrier;
 import peschlowp.jbarrier.barrier.TournamentBarrier;
 
@@ -62,23 +70,27 @@ public class BarrierExample {
 	/**
 	 * {@link CentralBarrier Central barrier}
 	 */
-	CENTRAL(CentralBarrier.class, FloatCentralReduction.class),
+	CENTRAL(CentralBarrier.class, FloatCentralReduction.class, LongCentralReduction.class),
 	/**
 	 * {@link TournamentBarrier Tournament barrier}
 	 */
-	TOURNAMENT(TournamentBarrier.class, FloatTournamentReduction.class),
+	TOURNAMENT(TournamentBarrier.class, FloatTournamentReduction.class,
+		LongTournamentReduction.class),
 	/**
 	 * {@link ButterflyBarrier Butterfly barrier}
 	 */
-	BUTTERFLY(ButterflyBarrier.class, FloatButterflyReduction.class),
+	BUTTERFLY(ButterflyBarrier.class, FloatButterflyReduction.class,
+		LongButterflyReduction.class),
 	/**
 	 * {@link DisseminationBarrier Dissemination barrier}
 	 */
-	DISSEMINATION(DisseminationBarrier.class, FloatDisseminationReduction.class),
+	DISSEMINATION(DisseminationBarrier.class, FloatDisseminationReduction.class,
+		LongDisseminationReduction.class),
 	/**
 	 * {@link StaticTreeBarrier Static tree barrier}
 	 */
-	STATICTREE(StaticTreeBarrier.class, FloatStaticTreeReduction.class);
+	STATICTREE(StaticTreeBarrier.class, FloatStaticTreeReduction.class,
+		LongStaticTreeReduction.class);
 
 	/**
 	 * Constructor.
@@ -87,10 +99,14 @@ public class BarrierExample {
 	 *            the class of the respective barrier
 	 * @param reductionClass
 	 *            the reduction class of the respective barrier
+	 * @param sumClass
+	 *            the long reduction class underlying a reproducible sum with the respective
+	 *            barrier
 	 */
-	private BarrierType(Class<?> barrierClass, Class<?> reductionClass) {
+	private BarrierType(Class<?> barrierClass, Class<?> reductionClass, Class<?> sumClass) {
 	    this.barrierClass = barrierClass;
 	    this.reductionClass = reductionClass;
+	    this.sumClass = sumClass;
 	}
 
 	/**
@@ -103,6 +119,12 @@ public class BarrierExample {
 	 */
 	private final Class<?> reductionClass;
 
+	/**
+	 * The long reduction class underlying a reproducible sum with the barrier represented by
+	 * this enum.
+	 */
+	private final Class<?> sumClass;
+
 	/**
 	 * Whether this barrier is used in the current test run.
 	 */
@@ -136,6 +158,15 @@ public class BarrierExample {
 	    return reductionClass;
 	}
 
+	/**
+	 * Provides the long reduction class underlying a reproducible sum with this barrier.
+	 * 
+	 * @return the long reduction class underlying a reproducible sum with this barrier
+	 */
+	Class<?> getSumClass() {
+	    return sumClass;
+	}
+
 	/**
 	 * Configures whether this barrier is used in the current test run.
 	 * 
@@ -192,6 +223,11 @@ public class BarrierExample {
      */
     private static boolean testSimpleBarriers = true;
 
+    /**
+     * Whether to test the reproducible sum instead of the reduction barrier implementations.
+     */
+    private static boolean testReproducibleSum = false;
+
     /**
      * Whether to calculate and print statistics.
      */
@@ -238,6 +274,11 @@ public class BarrierExample {
      */
     private static FloatReduction reduction;
 
+    /**
+     * The reproducible sum used when the reproducible sum is tested.
+     */
+    private static ReproducibleSum reproducibleSum;
+
     /**
      * The cyclic barrier used for comparison.
      */
@@ -248,6 +289,29 @@ public class BarrierExample {
      */
     private static long[] dummyResults;
 
+    /**
+     * An array which stores the results of the reproducible sum, useful for verifying that all
+     * threads obtain the same result.
+     */
+    private static double[] sumResults;
+
+    /**
+     * The correctly rounded sums expected from the reproducible sum in each iteration, computed
+     * exactly with BigDecimal.
+     */
+    private static double[] expectedSums;
+
+    /**
+     * The sums obtained from the reproducible sum in each iteration with the first barrier type
+     * tested, to which the sums obtained with the other barrier types are compared bitwise.
+     */
+    private static double[] firstSums;
+
+    /**
+     * Whether {@link #firstSums} holds the sums of a completed test run.
+     */
+    private static boolean haveFirstSums = false;
+
     /**
      * The threads used during the test.
      */
@@ -282,6 +346,9 @@ public class BarrierExample {
 	    testSimpleBarriers = true;
 	} else if ("r".equals(args[0])) {
 	    testSimpleBarriers = false;
+	} else if ("x".equals(args[0])) {
+	    testSimpleBarriers = false;
+	    testReproducibleSum = true;
 	} else {
 	    die("Invalid first parameter!\n" + getUsageMessage());
 	}
@@ -354,14 +421,18 @@ public class BarrierExample {
 	}
 
 	System.out.println("Starting experiment! Details:\ntest_type = "
-		+ (testSimpleBarriers ? "b" : "r") + "\ntests = " + numTests + "\nworkload = "
-		+ workload + "\niterations = " + numIterations + "\nthreads = " + numThreads
-		+ "\nmodifiers = " + modifiers + "\n");
+		+ (testSimpleBarriers ? "b" : (testReproducibleSum ? "x" : "r")) + "\ntests = "
+		+ numTests + "\nworkload = " + workload + "\niterations = " + numIterations
+		+ "\nthreads = " + numThreads + "\nmodifiers = " + modifiers + "\n");
 
 	if (doSeq) {
 	    seqExperiment();
 	}
 
+	if (testReproducibleSum) {
+	    computeExpectedSums();
+	}
+
 	for (BarrierType type : BarrierType.values()) {
 	    if (type.isTested()) {
 		testBarrier(type);
@@ -385,6 +456,7 @@ public class BarrierExample {
     private static void testBarrier(BarrierType type) {
 	System.out.print(type.name() + ":");
 	dummyResults = new long[numThreads];
+	sumResults = new double[numThreads];
 	for (int threadId = 0; threadId < numThreads; threadId++) {
 	    dummyResults[threadId] = 0L;
 	}
@@ -403,6 +475,13 @@ public class BarrierExample {
 			    Runnable.class, GenericReductor.class);
 		    barrier = (Barrier) constructor.newInstance(numThreads, barrierAction,
 			    genericReductor);
+		} else if (testReproducibleSum) {
+		    Class<?> sumClass = type.getSumClass();
+		    assert LongReduction.class.isAssignableFrom(sumClass) : sumClass;
+		    Constructor<?> constructor = sumClass.getConstructor(int.class, Runnable.class,
+			    ReductionOperator.class);
+		    reproducibleSum = new ReproducibleSum((LongReduction) constructor.newInstance(
+			    numThreads, barrierAction, new ReductionOperator.SumReduction()));
 		} else {
 		    Class<?> reductionClass = type.getReductionClass();
 		    assert FloatReduction.class.isAssignableFrom(reductionClass) : reductionClass;
@@ -432,11 +511,44 @@ public class BarrierExample {
 	    if (doStatistics) {
 		type.addSample(result);
 	    }
+	    haveFirstSums = testReproducibleSum;
 	    System.out.print("\t" + result + " ms");
 	}
 	System.out.println();
     }
 
+    /**
+     * Provides the value contributed to the reproducible sum by a thread in an iteration. The
+     * values are not integers and have alternating signs and large magnitudes, so that a plain
+     * double sum depends on the order of the additions.
+     * 
+     * @param threadId
+     *            the ID of the thread
+     * @param iteration
+     *            the iteration
+     * @return the value contributed by the thread in the iteration
+     */
+    private static double getSumValue(int threadId, int iteration) {
+	final double offset = (threadId & 1) == 0 ? 1.0e15 : -1.0e15;
+	return offset + 0.1 * (threadId + 100 * iteration);
+    }
+
+    /**
+     * Computes the correctly rounded sums expected from the reproducible sum in each iteration,
+     * independently of the reproducible sum, by adding the values exactly with BigDecimal.
+     */
+    private static void computeExpectedSums() {
+	expectedSums = new double[numIterations];
+	firstSums = new double[numIterations];
+	for (int i = 0; i < numIterations; i++) {
+	    BigDecimal sum = BigDecimal.ZERO;
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		sum = sum.add(new BigDecimal(getSumValue(threadId, i)));
+	    }
+	    expectedSums[i] = sum.doubleValue();
+	}
+    }
+
     /**
      * Runs the experiment using the standard Java CyclicBarrier.
      */
@@ -568,7 +680,7 @@ public class BarrierExample {
 		+ "java "
 		+ BarrierExample.class.getSimpleName()
 		+ " <test_type> <barrier_type> <tests> <workload> <iterations> <threads> <modifiers>\n\n"
-		+ "<test_type>: [b|r]; \'b\' tests the barriers, \'r\' the reduction barriers\n"
+		+ "<test_type>: [b|r|x]; \'b\' tests the barriers, \'r\' the reduction barriers, \'x\' the reproducible sum\n"
 		+ "<barrier_type> [ALL|CENTRAL|TOURNAMENT|BUTTERFLY|DISSEMINATION|STATICTREE]; specify that either all barriers or a specific barrier is to be tested\n"
 		+ "<tests>: a positive integer; the number of tests to be performed per barrier implementation\n"
 		+ "<workload>: a nonnegative integer; the total amount of work to be performed (has to be divisible between the number of threads used)\n"
@@ -619,6 +731,15 @@ public class BarrierExample {
 		    System.err.println("Barrier failed");
 		}
 	    }
+	    if (testReproducibleSum) {
+		for (int threadId = 1; threadId < numThreads; threadId++) {
+		    if (Double.doubleToLongBits(sumResults[threadId]) != Double
+			    .doubleToLongBits(sumResults[0])) {
+			System.out.println("Reproducible sum failed");
+			System.err.println("Reproducible sum failed");
+		    }
+		}
+	    }
 	    if (genericReductor != null) {
 		genericReductionResult = exampleThreads[0].getMinValue();
 	    }
@@ -715,6 +836,38 @@ public class BarrierExample {
 	    }
 	}
 
+	/**
+	 * Runs the experiment with a reproducible sum on top of one of the reduction barriers of
+	 * the library (see {@link BarrierExample#getSumValue(int, int)} for the values summed). The
+	 * result of each iteration is compared bitwise to the sum computed exactly with BigDecimal,
+	 * which does not depend on the number of threads or the barrier type, and to the result
+	 * obtained with the first barrier type tested. The barrier action (if any) checks that all
+	 * threads obtained the same result.
+	 */
+	private void runReproducibleSum() {
+	    final int iter = numIterations;
+	    final int work = workload / numThreads;
+	    for (int i = 0; i < iter; i++) {
+		double myValue = getSumValue(threadId_, i);
+		dummyResults[threadId_] += dummyWork(work);
+		double result = reproducibleSum.await(threadId_, myValue);
+		sumResults[threadId_] = result;
+		final long resultBits = Double.doubleToLongBits(result);
+		if (resultBits != Double.doubleToLongBits(expectedSums[i])) {
+		    System.err.println("During " + reproducibleSum.getClass().getSimpleName()
+			    + " test, iteration " + i + ": Thread " + threadId_ + " sum failed: "
+			    + result + " (expected: " + expectedSums[i] + ")");
+		}
+		if (threadId_ == 0 && !haveFirstSums) {
+		    firstSums[i] = result;
+		} else if (haveFirstSums && resultBits != Double.doubleToLongBits(firstSums[i])) {
+		    System.err.println("During " + reproducibleSum.getClass().getSimpleName()
+			    + " test, iteration " + i + ": Thread " + threadId_ + " sum " + result
+			    + " differs from the first barrier type tested: " + firstSums[i]);
+		}
+	    }
+	}
+
 	/**
 	 * @see java.lang.Thread#run()
 	 */
@@ -722,6 +875,8 @@ public class BarrierExample {
 	public void run() {
 	    if (testSimpleBarriers) {
 		runBarrier();
+	    } else if (testReproducibleSum) {
+		runReproducibleSum();
 	    } else {
 		runReduction();
 	    }
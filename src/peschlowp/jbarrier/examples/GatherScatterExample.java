@@ -0,0 +1,249 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.examples;
+
+import peschlowp.jbarrier.barrier.FloatTreeGatherScatter;
+
+/**
+ * Test class for the {@link FloatTreeGatherScatter}. The threads alternate between gathers and
+ * scatters of blocks, and the root moves to the next thread after each barrier episode. Thus, the
+ * tree changes in every episode, and a party usually has different children in a gather than in
+ * the preceding scatter. Each thread checks the values it receives, which depend on the thread
+ * ID, the iteration, and the index within the block, so that values of a different episode or
+ * party are detected.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class GatherScatterExample {
+    /**
+     * Number of tests to be performed.
+     */
+    private static int numTests;
+
+    /**
+     * How many times the barrier is invoked.
+     */
+    private static int numIterations;
+
+    /**
+     * Number of values contributed or received by each thread in a barrier episode.
+     */
+    private static int blockLength;
+
+    /**
+     * Number of threads to be used during the test.
+     */
+    private static int numThreads;
+
+    /**
+     * The barrier used during the test.
+     */
+    private static FloatTreeGatherScatter gatherScatter;
+
+    /**
+     * Whether any thread received a wrong value during the current test.
+     */
+    private static volatile boolean failed;
+
+    /**
+     * Main method
+     * 
+     * @param args
+     *            Program arguments
+     */
+    public static void main(String[] args) {
+	if (args.length != 4) {
+	    die("Wrong number of parameters!\n" + getUsageMessage());
+	}
+	numTests = Integer.parseInt(args[0]);
+	if (numTests <= 0) {
+	    die("Invalid first parameter!\n" + getUsageMessage());
+	}
+	numIterations = Integer.parseInt(args[1]);
+	if (numIterations <= 0) {
+	    die("Invalid second parameter!\n" + getUsageMessage());
+	}
+	blockLength = Integer.parseInt(args[2]);
+	if (blockLength <= 0) {
+	    die("Invalid third parameter!\n" + getUsageMessage());
+	}
+	numThreads = Integer.parseInt(args[3]);
+	if (numThreads < 2) {
+	    die("Invalid fourth parameter!\n" + getUsageMessage());
+	}
+
+	System.out.println("Starting experiment! Details:\ntests = " + numTests
+		+ "\niterations = " + numIterations + "\nblock length = " + blockLength
+		+ "\nthreads = " + numThreads + "\n");
+
+	System.out.print("TREE:");
+	final GatherScatterThread[] threads = new GatherScatterThread[numThreads];
+	for (int test = 0; test < numTests; test++) {
+	    failed = false;
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId] = new GatherScatterThread(threadId);
+	    }
+	    gatherScatter = new FloatTreeGatherScatter(numThreads);
+	    final long t1 = System.nanoTime();
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId].start();
+	    }
+	    try {
+		for (int threadId = 0; threadId < numThreads; threadId++) {
+		    threads[threadId].join();
+		}
+	    } catch (InterruptedException e) {
+		System.out.print("InterruptedException!");
+		e.printStackTrace();
+	    }
+	    System.out.print("\t" + (System.nanoTime() - t1) / 1000000.0 + " ms");
+	    if (failed) {
+		System.out.println("Gather/scatter failed");
+		System.err.println("Gather/scatter failed");
+	    }
+	}
+	System.out.println();
+    }
+
+    /**
+     * Provides the value transferred for a thread in an iteration. The values are small
+     * integers, so that they are represented exactly.
+     * 
+     * @param threadId
+     *            the ID of the thread contributing (gather) or receiving (scatter) the value
+     * @param iteration
+     *            the iteration
+     * @param index
+     *            the index of the value within the block of the thread
+     * @return the value
+     */
+    private static float getValue(int threadId, int iteration, int index) {
+	return (iteration * 1009 + threadId * 31 + index) % 65536;
+    }
+
+    /**
+     * Prints usage information.
+     * 
+     * @return a string containing the usage information
+     */
+    private static String getUsageMessage() {
+	String usage = "Usage:\n"
+		+ "java "
+		+ GatherScatterExample.class.getSimpleName()
+		+ " <tests> <iterations> <block_length> <threads>\n\n"
+		+ "<tests>: a positive integer; the number of tests to be performed\n"
+		+ "<iterations>: a positive integer; how many times the barrier is invoked in a single test run, alternating between gathers and scatters\n"
+		+ "<block_length>: a positive integer; the number of values contributed or received by each thread per iteration\n"
+		+ "<threads>: an integer >= 2: the number of threads meeting at the barrier";
+	return usage;
+    }
+
+    /**
+     * Terminate the program in case of invalid arguments.
+     * 
+     * @param msg
+     *            custom error message.
+     */
+    private static void die(String msg) {
+	System.out.println(msg);
+	System.err.println(msg);
+	System.exit(-1);
+    }
+
+    /**
+     * A worker thread which alternates between gathers and scatters with a rotating root.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    static class GatherScatterThread extends Thread {
+	/**
+	 * The unique id of this thread.
+	 */
+	private final int threadId_;
+
+	/**
+	 * Creates a thread which alternates between gathers and scatters.
+	 * 
+	 * @param threadId
+	 *            The unique id of this thread
+	 */
+	public GatherScatterThread(int threadId) {
+	    threadId_ = threadId;
+	}
+
+	/**
+	 * Checks a received value and reports a mismatch.
+	 * 
+	 * @param operation
+	 *            the name of the operation
+	 * @param iteration
+	 *            the iteration
+	 * @param value
+	 *            the received value
+	 * @param expected
+	 *            the expected value
+	 */
+	private void check(String operation, int iteration, float value, float expected) {
+	    if (value != expected) {
+		failed = true;
+		System.err.println("During " + operation + ", iteration " + iteration + ": Thread "
+			+ threadId_ + " received " + value + " (expected: " + expected + ")");
+	    }
+	}
+
+	/**
+	 * @see java.lang.Thread#run()
+	 */
+	@Override
+	public void run() {
+	    final float[] block = new float[blockLength];
+	    final float[] all = new float[numThreads * blockLength];
+	    for (int i = 0; i < numIterations; i++) {
+		final int rootId = i % numThreads;
+		if (i % 2 == 0) {
+		    for (int j = 0; j < blockLength; j++) {
+			block[j] = getValue(threadId_, i, j);
+		    }
+		    gatherScatter.gather(threadId_, rootId, block, all);
+		    if (threadId_ == rootId) {
+			for (int threadId = 0; threadId < numThreads; threadId++) {
+			    for (int j = 0; j < blockLength; j++) {
+				check("gather", i, all[threadId * blockLength + j], getValue(
+					threadId, i, j));
+			    }
+			}
+		    }
+		} else {
+		    if (threadId_ == rootId) {
+			for (int threadId = 0; threadId < numThreads; threadId++) {
+			    for (int j = 0; j < blockLength; j++) {
+				all[threadId * blockLength + j] = getValue(threadId, i, j);
+			    }
+			}
+		    }
+		    gatherScatter.scatter(threadId_, rootId, all, block);
+		    for (int j = 0; j < blockLength; j++) {
+			check("scatter", i, block[j], getValue(threadId_, i, j));
+		    }
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2012 Patrick Peschlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package peschlowp.jbarrier.examples;
+
+import peschlowp.jbarrier.barrier.TournamentBarrier;
+import peschlowp.jbarrier.barrier.WavefrontBarrier;
+
+/**
+ * Performance test class for the {@link WavefrontBarrier}. Computes a dynamic programming table
+ * (like in sequence alignment) where each cell depends on its upper and left neighbor. Each thread
+ * owns a contiguous block of rows and processes the columns in blocks, one block per phase. The
+ * same pipelined loop is executed once with a {@link WavefrontBarrier} and once with a
+ * {@link TournamentBarrier}, where the latter needs <i>blocks</i>+<i>threads</i>-1 full barrier
+ * episodes. The results of both runs are checked against a sequential computation.
+ * 
+ * @version 1.0
+ * 
+ * @author agent
+ */
+public class WavefrontExample {
+    /**
+     * Number of tests to be performed per synchronization type.
+     */
+    private static int numTests;
+
+    /**
+     * Number of rows of the table.
+     */
+    private static int numRows;
+
+    /**
+     * Number of columns of the table.
+     */
+    private static int numColumns;
+
+    /**
+     * Number of column blocks, i.e., phases.
+     */
+    private static int numBlocks;
+
+    /**
+     * Number of threads to be used during the test.
+     */
+    private static int numThreads;
+
+    /**
+     * The table computed during the test (with an additional boundary row and column).
+     */
+    private static long[][] table;
+
+    /**
+     * The wavefront barrier used when the wavefront is tested.
+     */
+    private static WavefrontBarrier wavefront;
+
+    /**
+     * The barrier used when the tournament barrier is tested.
+     */
+    private static TournamentBarrier barrier;
+
+    /**
+     * Main method
+     * 
+     * @param args
+     *            Program arguments
+     */
+    public static void main(String[] args) {
+	if (args.length != 5) {
+	    die("Wrong number of parameters!\n" + getUsageMessage());
+	}
+	numTests = Integer.parseInt(args[0]);
+	if (numTests <= 0) {
+	    die("Invalid first parameter!\n" + getUsageMessage());
+	}
+	numRows = Integer.parseInt(args[1]);
+	if (numRows <= 0) {
+	    die("Invalid second parameter!\n" + getUsageMessage());
+	}
+	numColumns = Integer.parseInt(args[2]);
+	if (numColumns <= 0) {
+	    die("Invalid third parameter!\n" + getUsageMessage());
+	}
+	numBlocks = Integer.parseInt(args[3]);
+	if (numBlocks <= 0 || numColumns % numBlocks != 0) {
+	    die("Invalid fourth parameter!\n" + getUsageMessage());
+	}
+	numThreads = Integer.parseInt(args[4]);
+	if (numThreads < 2 || numRows % numThreads != 0) {
+	    die("Invalid fifth parameter!\n" + getUsageMessage());
+	}
+
+	System.out.println("Starting experiment! Details:\ntests = " + numTests + "\nrows = "
+		+ numRows + "\ncolumns = " + numColumns + "\nblocks = " + numBlocks
+		+ "\nthreads = " + numThreads + "\n");
+
+	final long expected = seqExperiment();
+	testParallel(true, expected);
+	testParallel(false, expected);
+    }
+
+    /**
+     * Executes a set of sequential tests.
+     * 
+     * @return the checksum of the table
+     */
+    private static long seqExperiment() {
+	System.out.print("SEQ:");
+	long checksum = 0L;
+	for (int test = 0; test < numTests; test++) {
+	    table = new long[numRows + 1][numColumns + 1];
+	    final long t1 = System.nanoTime();
+	    computeBlock(1, numRows + 1, 1, numColumns + 1);
+	    System.out.print("\t" + (System.nanoTime() - t1) / 1000000.0 + " ms");
+	    checksum = checksum();
+	}
+	System.out.println();
+	return checksum;
+    }
+
+    /**
+     * Runs the pipelined computation in parallel.
+     * 
+     * @param useWavefront
+     *            <code>true</code> to synchronize with a {@link WavefrontBarrier}, or
+     *            <code>false</code> to synchronize with a {@link TournamentBarrier}
+     * @param expected
+     *            the checksum computed sequentially
+     */
+    private static void testParallel(boolean useWavefront, long expected) {
+	System.out.print(useWavefront ? "WAVEFRONT:" : "TOURNAMENT:");
+	final PipelineThread[] threads = new PipelineThread[numThreads];
+	for (int test = 0; test < numTests; test++) {
+	    table = new long[numRows + 1][numColumns + 1];
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId] = new PipelineThread(threadId, useWavefront);
+	    }
+	    if (useWavefront) {
+		wavefront = new WavefrontBarrier(numThreads);
+	    } else {
+		barrier = new TournamentBarrier(numThreads);
+	    }
+	    final long t1 = System.nanoTime();
+	    for (int threadId = 0; threadId < numThreads; threadId++) {
+		threads[threadId].start();
+	    }
+	    try {
+		for (int threadId = 0; threadId < numThreads; threadId++) {
+		    threads[threadId].join();
+		}
+	    } catch (InterruptedException e) {
+		System.out.print("InterruptedException!");
+		e.printStackTrace();
+	    }
+	    System.out.print("\t" + (System.nanoTime() - t1) / 1000000.0 + " ms");
+	    if (checksum() != expected) {
+		System.out.println("Synchronization failed");
+		System.err.println("Synchronization failed");
+	    }
+	}
+	System.out.println();
+    }
+
+    /**
+     * Computes a rectangular block of the table.
+     * 
+     * @param rowFrom
+     *            the first row (inclusive)
+     * @param rowTo
+     *            the last row (exclusive)
+     * @param columnFrom
+     *            the first column (inclusive)
+     * @param columnTo
+     *            the last column (exclusive)
+     */
+    private static void computeBlock(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+	for (int r = rowFrom; r < rowTo; r++) {
+	    final long[] up = table[r - 1];
+	    final long[] row = table[r];
+	    for (int c = columnFrom; c < columnTo; c++) {
+		row[c] = Math.max(up[c], row[c - 1]) + ((r * 31 + c * 17) % 5) - 2;
+	    }
+	}
+    }
+
+    /**
+     * Computes a checksum of the table.
+     * 
+     * @return the checksum
+     */
+    private static long checksum() {
+	long sum = 0L;
+	for (int r = 1; r <= numRows; r++) {
+	    for (int c = 1; c <= numColumns; c++) {
+		sum = sum * 31 + table[r][c];
+	    }
+	}
+	return sum;
+    }
+
+    /**
+     * Prints usage information.
+     * 
+     * @return a string containing the usage information
+     */
+    private static String getUsageMessage() {
+	String usage = "Usage:\n"
+		+ "java "
+		+ WavefrontExample.class.getSimpleName()
+		+ " <tests> <rows> <columns> <blocks> <threads>\n\n"
+		+ "<tests>: a positive integer; the number of tests to be performed per synchronization type\n"
+		+ "<rows>: a positive integer; the number of rows of the table (has to be divisible by the number of threads)\n"
+		+ "<columns>: a positive integer; the number of columns of the table (has to be divisible by the number of blocks)\n"
+		+ "<blocks>: a positive integer; the number of column blocks, i.e., pipeline phases\n"
+		+ "<threads>: an integer >= 2: the number of threads forming the pipeline";
+	return usage;
+    }
+
+    /**
+     * Terminate the program in case of invalid arguments.
+     * 
+     * @param msg
+     *            custom error message.
+     */
+    private static void die(String msg) {
+	System.out.println(msg);
+	System.err.println(msg);
+	System.exit(-1);
+    }
+
+    /**
+     * A worker thread which computes its rows of the table block by block.
+     * 
+     * @version 1.0
+     * 
+     * @author agent
+     */
+    static class PipelineThread extends Thread {
+	/**
+	 * The unique id of this thread.
+	 */
+	private final int threadId_;
+
+	/**
+	 * Whether to synchronize with the wavefront barrier.
+	 */
+	private final boolean useWavefront_;
+
+	/**
+	 * Creates a thread which computes its rows of the table.
+	 * 
+	 * @param threadId
+	 *            The unique id of this thread
+	 * @param useWavefront
+	 *            Whether to synchronize with the wavefront barrier
+	 */
+	public PipelineThread(int threadId, boolean useWavefront) {
+	    threadId_ = threadId;
+	    useWavefront_ = useWavefront;
+	}
+
+	/**
+	 * Computes a block of the table.
+	 * 
+	 * @param block
+	 *            the index of the column block
+	 */
+	private void compute(int block) {
+	    final int rowsPerThread = numRows / numThreads;
+	    final int columnsPerBlock = numColumns / numBlocks;
+	    final int rowFrom = 1 + threadId_ * rowsPerThread;
+	    final int columnFrom = 1 + block * columnsPerBlock;
+	    computeBlock(rowFrom, rowFrom + rowsPerThread, columnFrom,
+		    columnFrom + columnsPerBlock);
+	}
+
+	/**
+	 * Runs the pipeline with the wavefront barrier.
+	 */
+	private void runWavefront() {
+	    for (int block = 0; block < numBlocks; block++) {
+		wavefront.await(threadId_);
+		compute(block);
+		wavefront.signal(threadId_);
+	    }
+	}
+
+	/**
+	 * Runs the pipeline with the tournament barrier.
+	 */
+	private void runTournament() {
+	    final int steps = numBlocks + numThreads - 1;
+	    for (int step = 0; step < steps; step++) {
+		final int block = step - threadId_;
+		if (block >= 0 && block < numBlocks) {
+		    compute(block);
+		}
+		barrier.await(threadId_);
+	    }
+	}
+
+	/**
+	 * @see java.lang.Thread#run()
+	 */
+	@Override
+	public void run() {
+	    if (useWavefront_) {
+		runWavefront();
+	    } else {
+		runTournament();
+	    }
+	}
+    }
+}
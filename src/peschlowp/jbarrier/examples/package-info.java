@@ -1,9 +1,15 @@
 /**
  * Some examples of how to use the different barriers and their reduction
- * variants. Currently, all examples are located in a single test program,
+ * variants. Most examples are located in a single test program,
  * {@link peschlowp.jbarrier.examples.BarrierExample}, which may also be
- * used for performance tests. The type of barrier to use as well as several
- * other configuration parameters may be specified as command line arguments.
- * For details, see the documentation and usage information of the test program.
+ * used for performance tests. The pipelined wavefront synchronization is
+ * compared to a full barrier in
+ * {@link peschlowp.jbarrier.examples.WavefrontExample}, and the allreduce
+ * algorithms for large arrays are compared to a naive shared-array approach in
+ * {@link peschlowp.jbarrier.examples.AllreduceExample}. Gathers and scatters with a rotating
+ * root are checked in {@link peschlowp.jbarrier.examples.GatherScatterExample}. The type of
+ * barrier to use as well as several other configuration parameters may be specified as
+ * command line arguments. For details, see the documentation and usage information of the
+ * test program.
  */
 package peschlowp.jbarrier.examples;
\ No newline at end of file
@@ -20,13 +20,19 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Generates reduction classes for the primitive types int, long, float, and double, based on a
- * template. Make sure the templates are in a valid state before running this program. A safe way is
- * to make changes to one of the primitive type classes, e.g., the Float variant of a barrier, and
- * then generate the templates from Java code using the GenerateTemplates program.
+ * Generates reduction classes for the primitive types int, long, float, double, byte, short, and
+ * char, based on a template. Make sure the templates are in a valid state before running this
+ * program. A safe way is to make changes to one of the primitive type classes, e.g., the Float
+ * variant of a barrier, and then generate the templates from Java code using the GenerateTemplates
+ * program. There are no boolean classes, as several boolean values are better reduced at once,
+ * packed into an int or long (see ReductionOperator.PackedReduction), or by the
+ * BooleanCentralReduction.
  * 
  * @version 1.0
  * 
@@ -34,6 +40,22 @@ import java.util.regex.Pattern;
  * @author Ivan Castilla Rodriguez
  */
 public class GeneratePrimitiveTypeClasses {
+    /**
+     * The maximum number of columns of a line in the generated code.
+     */
+    private static final int MAX_COLUMNS = 100;
+
+    /**
+     * The number of columns a tab character advances to.
+     */
+    private static final int TAB_WIDTH = 8;
+
+    /**
+     * Matches a line of a documentation comment. Group 1: the prefix up to the text. Group 2: the
+     * text.
+     */
+    private static final Pattern COMMENT_LINE = Pattern.compile("(\\s*\\*\\s+)(\\S.*)");
+
     /**
      * Main method.
      * 
@@ -53,8 +75,9 @@ public class GeneratePrimitiveTypeClasses {
 	    return;
 	}
 
-	String[] primitives = { "int", "long", "float", "double" };
-	String[] primitivesUpperCase = { "Int", "Long", "Float", "Double" };
+	String[] primitives = { "int", "long", "float", "double", "byte", "short", "char" };
+	String[] primitivesUpperCase = { "Int", "Long", "Float", "Double", "Byte", "Short",
+		"Char" };
 
 	// Generate reduction barrier source code.
 	String[] templatePrefixes = { "Central", "Dissemination", "Butterfly", "Tournament",
@@ -66,6 +89,30 @@ public class GeneratePrimitiveTypeClasses {
 		    outPath);
 	}
 
+	// Generate operator-specialized reduction barrier source code.
+	String[] operatorNames = { "Sum", "Min", "Max" };
+	String[] operatorClasses = { "SumReduction", "MinimumReduction", "MaximumReduction" };
+	String[] operatorDescriptions = { "sum", "minimum", "maximum" };
+	for (int i = 0; i < templatePrefixes.length; i++) {
+	    String templateName = "P" + templatePrefixes[i] + "Reduction.template";
+	    for (int j = 0; j < operatorNames.length; j++) {
+		generateSpecializedClasses(primitives, primitivesUpperCase, templateName,
+			templatePrefixes[i] + "Reduction", operatorNames[j], operatorClasses[j],
+			operatorDescriptions[j], inPath, outPath);
+	    }
+	}
+
+	// Generate other collective source code.
+	String[] collectiveNames = { "DisseminationScan", "ButterflyAllgather",
+		"TreeBroadcast", "TournamentArgReduction", "ButterflyReduceScatter",
+		"CentralAtomicReduction", "TreeGatherScatter", "PairwiseAlltoall" };
+	for (int i = 0; i < collectiveNames.length; i++) {
+	    String templateName = "P" + collectiveNames[i] + ".template";
+	    String outputName = collectiveNames[i] + ".java";
+	    generateClasses(primitives, primitivesUpperCase, templateName, outputName, inPath,
+		    outPath);
+	}
+
 	// Generate reduction interface source code.
 	String templateName = "PReduction.template";
 	String outputName = "Reduction.java";
@@ -99,11 +146,239 @@ public class GeneratePrimitiveTypeClasses {
 	    String outputCode = templateCode;
 	    outputCode = Pattern.compile("#TYPE#").matcher(outputCode).replaceAll(primitive);
 	    outputCode = Pattern.compile("#TYPE_NAME#").matcher(outputCode).replaceAll(primitiveUC);
+	    outputCode = removeRedundantCasts(outputCode, primitive);
+	    outputCode = wrapLongLines(fixArticles(outputCode, primitive));
 	    String outFile = primitiveUC + outputFileNameSuffix;
 	    writeFile(outFile, outputPath, outputCode);
 	}
     }
 
+    /**
+     * Generates all primitive type classes for the specified reduction template, specialized for
+     * a single reduction operator. The reduction operator is created by the constructors instead
+     * of being passed in, and the reductor field is declared with the type of the operator class.
+     * Thus, each specialized class has its own call sites of the operator, which only ever see a
+     * single receiver type and may be bound statically and inlined by the JIT compiler, even if
+     * an application uses several operators.
+     * 
+     * @param primitives
+     *            the primitive type classes
+     * @param primitivesUC
+     *            the primitive type classes starting with an uppercase letter
+     * @param inputFileName
+     *            the name of the input file
+     * @param className
+     *            the name of the generated classes without the primitive type, e.g.,
+     *            "ButterflyReduction"
+     * @param operatorName
+     *            the name of the operator inserted into the class name, e.g., "Sum"
+     * @param operatorClass
+     *            the name of the operator class nested in the ReductionOperator class, e.g.,
+     *            "SumReduction"
+     * @param operatorDescription
+     *            the name of the operator used in the class documentation, e.g., "sum"
+     * @param inputPath
+     *            the path of the input file
+     * @param outputPath
+     *            the path of the output files
+     */
+    private static void generateSpecializedClasses(String[] primitives, String[] primitivesUC,
+	    String inputFileName, String className, String operatorName, String operatorClass,
+	    String operatorDescription, File inputPath, File outputPath) {
+	String templateCode = readFile(inputFileName, inputPath);
+	String operatorType = "ReductionOperator." + operatorClass;
+	String specialization = ", specialized for the " + operatorDescription
+		+ " operator (see {@link " + operatorType + "}).";
+	for (int i = 0; i < primitives.length; i++) {
+	    String primitive = primitives[i];
+	    String primitiveUC = primitivesUC[i];
+	    String outputCode = templateCode;
+	    outputCode = Pattern.compile("#TYPE#").matcher(outputCode).replaceAll(primitive);
+	    outputCode = Pattern.compile("#TYPE_NAME#").matcher(outputCode).replaceAll(primitiveUC);
+	    outputCode = removeRedundantCasts(outputCode, primitive);
+	    outputCode = Pattern.compile("\\b" + primitiveUC + className + "\\b")
+		    .matcher(outputCode).replaceAll(primitiveUC + operatorName + className);
+	    outputCode = Pattern.compile("( \\* Implementation of [^.]* reduction)\\.")
+		    .matcher(outputCode).replaceFirst("$1" + specialization);
+	    outputCode = Pattern.compile("\\n\\s*\\* @param reductor\\n\\s*\\*\\s*"
+		    + "the reduction operator to use").matcher(outputCode).replaceAll("");
+	    outputCode = Pattern.compile(",\\s*ReductionOperator reductor").matcher(outputCode)
+		    .replaceAll("");
+	    outputCode = Pattern.compile("(this\\([^;]*), reductor\\b").matcher(outputCode)
+		    .replaceAll("$1");
+	    outputCode = Pattern.compile("this\\.reductor = reductor;").matcher(outputCode)
+		    .replaceAll("this.reductor = new " + operatorType + "();");
+	    outputCode = Pattern.compile("private final ReductionOperator reductor;")
+		    .matcher(outputCode).replaceAll("private final " + operatorType + " reductor;");
+	    outputCode = wrapLongLines(fixArticles(outputCode, primitive));
+	    String outFile = primitiveUC + operatorName + className + ".java";
+	    writeFile(outFile, outputPath, outputCode);
+	}
+    }
+
+    /**
+     * Removes the casts of integer literals to the primitive type where they are redundant. The
+     * templates cast literals to the primitive type (e.g., "(#TYPE#) 0"), which is required for
+     * most types, but redundant for int.
+     * 
+     * @param code
+     *            the generated code
+     * @param primitive
+     *            the primitive type the code was generated for
+     * @return the code without redundant casts
+     */
+    private static String removeRedundantCasts(String code, String primitive) {
+	if (!primitive.equals("int")) {
+	    return code;
+	}
+	return Pattern.compile("\\(int\\) (\\d+)\\b").matcher(code).replaceAll("$1");
+    }
+
+    /**
+     * Replaces the article "a" by "an" in front of the primitive type if the type starts with a
+     * vowel, as the templates use the article for the float type (e.g., "a #TYPE# reduction").
+     * 
+     * @param code
+     *            the generated code
+     * @param primitive
+     *            the primitive type the code was generated for
+     * @return the code with the correct articles
+     */
+    private static String fixArticles(String code, String primitive) {
+	if ("aeiou".indexOf(primitive.charAt(0)) < 0) {
+	    return code;
+	}
+	return Pattern.compile("\\b([Aa]) (" + Pattern.quote(primitive) + ")\\b").matcher(code)
+		.replaceAll("$1n $2");
+    }
+
+    /**
+     * Wraps the lines of the generated code that are longer than {@link #MAX_COLUMNS}, which may
+     * result from type names longer than the one of the templates, or from the specialization of
+     * a class. The text of a documentation comment is moved to the start of the next line if that
+     * line continues the paragraph. Code is wrapped after the last comma that fits, or else after
+     * the last space that fits, and continued with an additional indentation of
+     * {@link #TAB_WIDTH} columns. Lines with string literals or line comments are left as they
+     * are.
+     * 
+     * @param code
+     *            the generated code
+     * @return the code with wrapped lines
+     */
+    private static String wrapLongLines(String code) {
+	String[] lines = code.split("\n", -1);
+	List<String> out = new ArrayList<String>();
+	for (int i = 0; i < lines.length; i++) {
+	    String line = lines[i];
+	    while (line != null && columns(line) > MAX_COLUMNS) {
+		Matcher comment = COMMENT_LINE.matcher(line);
+		boolean isComment = comment.matches();
+		if (!isComment && (line.indexOf('"') >= 0 || line.indexOf("//") >= 0)) {
+		    break;
+		}
+		int start = isComment ? comment.end(1) : line.length() - line.trim().length();
+		int space = findWrapPosition(line, start, !isComment);
+		if (space < 0) {
+		    break;
+		}
+		out.add(line.substring(0, space));
+		String rest = line.substring(space + 1);
+		if (isComment) {
+		    String prefix = comment.group(1);
+		    String next = i + 1 < lines.length ? lines[i + 1] : "";
+		    if (next.startsWith(prefix) && next.length() > prefix.length()
+			    && "@<".indexOf(next.charAt(prefix.length())) < 0) {
+			// Continue the paragraph, the next line may have to be wrapped, too.
+			lines[i + 1] = prefix + rest + " " + next.substring(prefix.length());
+			line = null;
+		    } else {
+			line = prefix + rest;
+		    }
+		} else {
+		    line = indentation(columns(line.substring(0, start)) + TAB_WIDTH) + rest;
+		}
+	    }
+	    if (line != null) {
+		out.add(line);
+	    }
+	}
+	StringBuilder result = new StringBuilder();
+	for (int i = 0; i < out.size(); i++) {
+	    if (i > 0) {
+		result.append("\n");
+	    }
+	    result.append(out.get(i));
+	}
+	return result.toString();
+    }
+
+    /**
+     * Finds the position of the space where a line is wrapped.
+     * 
+     * @param line
+     *            the line
+     * @param start
+     *            the index of the first character of the text or code in the line
+     * @param preferComma
+     *            whether a space following a comma is preferred
+     * @return the index of the space, or -1 if there is no space where the line may be wrapped
+     */
+    private static int findWrapPosition(String line, int start, boolean preferComma) {
+	int lastSpace = -1;
+	int lastCommaSpace = -1;
+	for (int i = start + 1; i < line.length(); i++) {
+	    if (columns(line.substring(0, i)) > MAX_COLUMNS) {
+		break;
+	    }
+	    // Do not leave an opening brace alone on the next line.
+	    if (line.charAt(i) == ' ' && !line.substring(i + 1).equals("{")) {
+		lastSpace = i;
+		if (line.charAt(i - 1) == ',') {
+		    lastCommaSpace = i;
+		}
+	    }
+	}
+	return preferComma && lastCommaSpace >= 0 ? lastCommaSpace : lastSpace;
+    }
+
+    /**
+     * Computes the number of columns of a string, taking tab characters into account.
+     * 
+     * @param text
+     *            the string
+     * @return the number of columns
+     */
+    private static int columns(String text) {
+	int columns = 0;
+	for (int i = 0; i < text.length(); i++) {
+	    if (text.charAt(i) == '\t') {
+		columns += TAB_WIDTH - columns % TAB_WIDTH;
+	    } else {
+		columns++;
+	    }
+	}
+	return columns;
+    }
+
+    /**
+     * Creates the indentation of the given number of columns, using tab characters as far as
+     * possible.
+     * 
+     * @param columns
+     *            the number of columns
+     * @return the indentation
+     */
+    private static String indentation(int columns) {
+	StringBuilder indentation = new StringBuilder();
+	for (int i = 0; i < columns / TAB_WIDTH; i++) {
+	    indentation.append('\t');
+	}
+	for (int i = 0; i < columns % TAB_WIDTH; i++) {
+	    indentation.append(' ');
+	}
+	return indentation.toString();
+    }
+
     /**
      * Writes to a file.
      * 
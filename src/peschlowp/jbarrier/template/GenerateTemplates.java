@@ -76,6 +76,17 @@ public class GenerateTemplates {
 		    outPath);
 	}
 
+	// Generate other collective template source code.
+	String[] collectiveNames = { "DisseminationScan", "ButterflyAllgather",
+		"TreeBroadcast", "TournamentArgReduction", "ButterflyReduceScatter",
+		"CentralAtomicReduction", "TreeGatherScatter", "PairwiseAlltoall" };
+	for (int i = 0; i < collectiveNames.length; i++) {
+	    String inputName = sourceTypeUpperCase + collectiveNames[i] + ".java";
+	    String outputName = "P" + collectiveNames[i] + ".template";
+	    generateTemplate(sourceType, sourceTypeUpperCase, inputName, outputName, inPath,
+		    outPath);
+	}
+
 	// Generate reduction interface template source code.
 	String inputName = sourceTypeUpperCase + "Reduction.java";
 	String outputName = "PReduction.template";
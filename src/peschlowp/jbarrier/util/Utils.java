@@ -16,7 +16,8 @@
 package peschlowp.jbarrier.util;
 
 /**
- * Utility functions for computing powers of two.
+ * Utility functions for computing powers of two and for storing primitive values in the bits of a
+ * long (e.g., in an {@link java.util.concurrent.atomic.AtomicLong}).
  * 
  * @version 1.0
  * 
@@ -62,4 +63,164 @@ public class Utils {
     public static boolean isPowerOfTwo(int k) {
 	return (k & (k - 1)) == 0;
     }
+
+    /**
+     * Stores a value of type <code>int</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toInt(long)}
+     */
+    public static long toBits(int value) {
+	return (long) value;
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(int)} back into a value of type <code>int</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static int toInt(long bits) {
+	return (int) bits;
+    }
+
+    /**
+     * Stores a value of type <code>long</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toLong(long)}
+     */
+    public static long toBits(long value) {
+	return value;
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(long)} back into a value of type
+     * <code>long</code>, which is the identity.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static long toLong(long bits) {
+	return bits;
+    }
+
+    /**
+     * Stores a value of type <code>float</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toFloat(long)}
+     */
+    public static long toBits(float value) {
+	return (long) Float.floatToRawIntBits(value);
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(float)} back into a value of type
+     * <code>float</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static float toFloat(long bits) {
+	return Float.intBitsToFloat((int) bits);
+    }
+
+    /**
+     * Stores a value of type <code>double</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toDouble(long)}
+     */
+    public static long toBits(double value) {
+	return Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(double)} back into a value of type
+     * <code>double</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static double toDouble(long bits) {
+	return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Stores a value of type <code>byte</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toByte(long)}
+     */
+    public static long toBits(byte value) {
+	return (long) value;
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(byte)} back into a value of type
+     * <code>byte</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static byte toByte(long bits) {
+	return (byte) bits;
+    }
+
+    /**
+     * Stores a value of type <code>short</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toShort(long)}
+     */
+    public static long toBits(short value) {
+	return (long) value;
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(short)} back into a value of type
+     * <code>short</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static short toShort(long bits) {
+	return (short) bits;
+    }
+
+    /**
+     * Stores a value of type <code>char</code> in the bits of a long.
+     * 
+     * @param value
+     *            the value
+     * @return the bits representing the value, to be converted back by {@link #toChar(long)}
+     */
+    public static long toBits(char value) {
+	return (long) value;
+    }
+
+    /**
+     * Converts bits obtained from {@link #toBits(char)} back into a value of type
+     * <code>char</code>.
+     * 
+     * @param bits
+     *            the bits representing the value
+     * @return the value
+     */
+    public static char toChar(long bits) {
+	return (char) bits;
+    }
 }